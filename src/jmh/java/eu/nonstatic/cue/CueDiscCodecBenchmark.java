@@ -0,0 +1,66 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Loading the same disc from its sheet and from its binary encoding, see {@link CueDiscCodec}.
+ * No file system involved, so the probing a sheet read would also do is not even accounted for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CueDiscCodecBenchmark {
+
+  @Param({"1", "99"})
+  int files; // 1 file with 99 tracks, or 99 files with one track each
+
+  String sheet;
+  CueOptions options;
+  CueDisc disc;
+  ByteBuffer encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    sheet = CueSheetReaderBenchmark.generateSheet(CueTrack.TRACK_MAX, files);
+    options = new CueOptions(StandardCharsets.UTF_8);
+    disc = readCueSheet();
+    encoded = CueDiscCodec.encode(disc);
+  }
+
+  @Benchmark
+  public CueDisc readCueSheet() throws IOException {
+    CueSheetContext context = new CueSheetContext("benchmark.cue", options);
+    return CueSheetReader.readCueSheet(new CueLineReader(new StringReader(sheet)), context);
+  }
+
+  @Benchmark
+  public CueDisc decode() throws IOException {
+    return CueDiscCodec.decode(encoded.duplicate());
+  }
+
+  @Benchmark
+  public ByteBuffer encode() {
+    return CueDiscCodec.encode(disc);
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing of a generated sheet, no file system involved: the FILE lines have no parent directory to be resolved against.
+ * Run it against two revisions to compare them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CueSheetReaderBenchmark {
+
+  @Param({"1", "99"})
+  int files; // 1 file with 99 tracks, or 99 files with one track each
+
+  String sheet;
+  CueOptions options;
+
+  @Setup
+  public void setup() {
+    sheet = generateSheet(CueTrack.TRACK_MAX, files);
+    options = new CueOptions(StandardCharsets.UTF_8);
+  }
+
+  static String generateSheet(int trackCount, int fileCount) {
+    StringBuilder sb = new StringBuilder()
+        .append("REM GENRE Rock\n")
+        .append("REM DATE 2000\n")
+        .append("REM DISCID B12C345D\n")
+        .append("REM COMMENT \"ExactAudioCopy v1.0b3\"\n")
+        .append("PERFORMER \"Some performer\"\n")
+        .append("TITLE \"Some title\"\n")
+        .append("CATALOG 0696969424242\n");
+
+    int tracksPerFile = trackCount / fileCount;
+    for (int t = 1; t <= trackCount; t++) {
+      int indexInFile = (t - 1) % tracksPerFile;
+      if (indexInFile == 0) {
+        sb.append("FILE \"file ").append(t).append(".wav\" WAVE\n");
+      }
+      int seconds = indexInFile * 30;
+      sb.append(String.format("  TRACK %02d AUDIO%n", t))
+          .append("    TITLE \"Title ").append(t).append("\"\n")
+          .append("    PERFORMER \"Performer ").append(t).append("\"\n")
+          .append("    ISRC FRXXX42").append(String.format("%05d", t)).append('\n')
+          .append("    FLAGS DCP\n");
+      if (indexInFile > 0) {
+        sb.append(String.format("    INDEX 00 %02d:%02d:00%n", (seconds - 2) / 60, (seconds - 2) % 60));
+      }
+      sb.append(String.format("    INDEX 01 %02d:%02d:00%n", seconds / 60, seconds % 60));
+    }
+    return sb.toString();
+  }
+
+  @Benchmark
+  public CueDisc readCueSheet() throws IOException {
+    CueSheetContext context = new CueSheetContext("benchmark.cue", options);
+    return CueSheetReader.readCueSheet(new CueLineReader(new StringReader(sheet)), context);
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Writing the same disc with {@link CueSheetWriter} and {@link CueSheetByteWriter}, to a stream discarding the bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CueSheetWriterBenchmark {
+
+  @Param({"1", "99"})
+  int files; // 1 file with 99 tracks, or 99 files with one track each
+
+  CueDisc disc;
+  CueWriteOptions options;
+  CueSheetByteWriter byteWriter;
+
+  @Setup
+  public void setup() throws IOException {
+    String sheet = CueSheetReaderBenchmark.generateSheet(CueTrack.TRACK_MAX, files);
+    CueSheetContext context = new CueSheetContext("benchmark.cue", new CueOptions(StandardCharsets.UTF_8));
+    disc = CueSheetReader.readCueSheet(new CueLineReader(new StringReader(sheet)), context);
+    options = CueWriteOptions.builder().build();
+    byteWriter = new CueSheetByteWriter();
+  }
+
+  @Benchmark
+  public void writer(Blackhole bh) throws IOException {
+    CueSheetWriter.writeCueSheet(disc, new BlackholeStream(bh), options);
+  }
+
+  @Benchmark
+  public void byteWriter(Blackhole bh) throws IOException {
+    byteWriter.write(disc, new BlackholeStream(bh), options);
+  }
+
+  private static final class BlackholeStream extends OutputStream {
+    private final Blackhole bh;
+
+    BlackholeStream(Blackhole bh) {
+      this.bh = bh;
+    }
+
+    @Override
+    public void write(int b) {
+      bh.consume(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bh.consume(b);
+      bh.consume(len);
+    }
+  }
+}
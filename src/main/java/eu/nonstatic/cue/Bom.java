@@ -31,6 +31,7 @@ public enum Bom {
   private final Charset charset;
 
   static final int MAX_LENGTH_BYTES = 4;
+  static final char BOM_CHAR = '\uFEFF'; // what any of the above decodes to
 
   Bom(byte[] bytes, Charset charset) {
     this.bytes = bytes;
@@ -0,0 +1,249 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Keeps the readouts of the most recently read sheets, keyed by their absolute path.
+ * - an entry is reused as long as the file's last modified time and size are unchanged, or its content hash when contentHash is set
+ *   (a file rewritten within the file system's time granularity, with the same size, would go unnoticed otherwise),
+ * - at most maxEntries are kept, the least recently read is evicted first,
+ * - concurrent reads of the same path wait for a single load, reads of different paths don't wait on each other,
+ * - callers get deep copies: what they do with them doesn't alter the cache.
+ * Copies have file references of their own, yet with lazySizeAndDuration options they share the cached readout's pending
+ * probes, so files are probed once. The issues of such a probe land on the cached readout's context: the copy the probe was triggered from doesn't get them,
+ * the copies handed out afterwards do.
+ */
+@Getter
+public final class CachingCueSheetReader {
+
+  public static final int DEFAULT_MAX_ENTRIES = 256;
+
+  private final CueSheetReader reader;
+  private final CueOptions options;
+  private final int maxEntries;
+  private final boolean contentHash;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<Path, Entry> entries; // access order, guarded by itself
+  @Getter(AccessLevel.NONE)
+  private final LongAdder hits = new LongAdder();
+  @Getter(AccessLevel.NONE)
+  private final LongAdder misses = new LongAdder();
+  @Getter(AccessLevel.NONE)
+  private final LongAdder evictions = new LongAdder();
+
+
+  private CachingCueSheetReader(CueSheetReader reader, CueOptions options, int maxEntries, boolean contentHash) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+    this.reader = reader;
+    this.options = options;
+    this.maxEntries = maxEntries;
+    this.contentHash = contentHash;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+        boolean evict = size() > CachingCueSheetReader.this.maxEntries;
+        if (evict) {
+          evictions.increment();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * @return a cache using a default CueSheetReader and options, validating entries on last modified time and size
+   */
+  public static CachingCueSheetReader defaults() {
+    return builder().build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+
+  /**
+   * @return a deep copy of the cached readout, loaded first if missing or stale
+   */
+  public CueSheetReadout readCueSheet(@NonNull Path cueFile) throws IOException, BadCharsetException {
+    Path key = cueFile.toAbsolutePath().normalize();
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.computeIfAbsent(key, k -> new Entry());
+    }
+
+    synchronized (entry) { // one load per path at a time
+      try {
+        Stamp stamp = stamp(key); // taken before reading: a file changing meanwhile will be stale next time
+        if (entry.readout != null && entry.stamp.equals(stamp)) {
+          hits.increment();
+        } else {
+          misses.increment();
+          entry.readout = reader.readCueSheet(key, options);
+          entry.stamp = stamp;
+        }
+      } catch (IOException | RuntimeException e) {
+        invalidate(key, entry);
+        throw e;
+      }
+      return copy(entry.readout);
+    }
+  }
+
+  private Stamp stamp(Path cueFile) throws IOException {
+    if (contentHash) {
+      return new Stamp(null, -1, CueTools.hash(cueFile));
+    }
+    BasicFileAttributes attrs = Files.readAttributes(cueFile, BasicFileAttributes.class);
+    return new Stamp(attrs.lastModifiedTime(), attrs.size(), null);
+  }
+
+  private static CueSheetReadout copy(CueSheetReadout readout) {
+    CueDisc disc = readout.getDisc().deepCopy();
+    disc.getFiles().forEach(CueFile::ownReference); // deepCopy shares them
+    return new CueSheetReadout(disc, readout.getContext().copy());
+  }
+
+  private void invalidate(Path key, Entry entry) {
+    synchronized (entries) {
+      entries.remove(key, entry);
+    }
+  }
+
+  /**
+   * Forgets about a sheet, its next read will load it
+   */
+  public void invalidate(@NonNull Path cueFile) {
+    synchronized (entries) {
+      entries.remove(cueFile.toAbsolutePath().normalize());
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+
+  private static final class Entry {
+    private Stamp stamp;
+    private CueSheetReadout readout;
+  }
+
+  private static final class Stamp {
+    private final FileTime lastModifiedTime;
+    private final long size;
+    private final byte[] hash;
+
+    Stamp(FileTime lastModifiedTime, long size, byte[] hash) {
+      this.lastModifiedTime = lastModifiedTime;
+      this.size = size;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Stamp)) {
+        return false;
+      }
+      Stamp other = (Stamp) o;
+      return size == other.size
+          && Objects.equals(lastModifiedTime, other.lastModifiedTime)
+          && Arrays.equals(hash, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hash(lastModifiedTime, size) + Arrays.hashCode(hash);
+    }
+  }
+
+
+  public static class Builder {
+    private CueSheetReader reader;
+    private CueOptions options;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private boolean contentHash;
+
+
+    public Builder reader(CueSheetReader reader) {
+      this.reader = reader;
+      return this;
+    }
+
+    /**
+     * Options all sheets are read with
+     */
+    public Builder options(CueOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    public Builder maxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /**
+     * Validates entries on a hash of the file's content instead of its last modified time and size.
+     * Safer, but each read then reads the whole file (still without parsing it).
+     */
+    public Builder contentHash(boolean contentHash) {
+      this.contentHash = contentHash;
+      return this;
+    }
+
+    public CachingCueSheetReader build() {
+      return new CachingCueSheetReader(
+          reader != null ? reader : new CueSheetReader(),
+          options != null ? options : CueOptions.builder().build(),
+          maxEntries, contentHash);
+    }
+  }
+}
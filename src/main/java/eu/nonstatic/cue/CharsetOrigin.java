@@ -0,0 +1,21 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+/**
+ * Why a sheet was decoded with its charset, see {@link CueSheetContext#getCharsetOrigin()}
+ */
+public enum CharsetOrigin {
+  BOM, // the sheet starts with one
+  OPTIONS, // the caller set it
+  DETECTION, // the byte scan or ICU's best match
+  DETECTION_CANDIDATE, // one of ICU's other matches, when the best one couldn't decode the sheet
+  FALLBACK // the reader's fallback, when detection didn't work out
+}
@@ -0,0 +1,92 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Probes the files referenced by a sheet concurrently, while the sheet is still being read.
+ * A file referenced more than once (same path and type) is probed once.
+ * Each probe gathers its issues on its own, they're merged into the sheet context in FILE order on {@link #await()},
+ * so the outcome doesn't depend on which probe ends first.
+ */
+class ConcurrentProber {
+
+  private final CueSheetContext context;
+  private final Executor executor;
+  private final Map<Map.Entry<Path, FileType>, CompletableFuture<Probe>> probes = new HashMap<>();
+  private final List<Map.Entry<FileReference, CompletableFuture<Probe>>> references = new ArrayList<>(); // FILE order
+
+  ConcurrentProber(CueSheetContext context, Executor executor) {
+    this.context = context;
+    this.executor = executor;
+  }
+
+  void submit(FileReference fileReference, Path file) {
+    CompletableFuture<Probe> probe = probes.computeIfAbsent(Map.entry(file, fileReference.getType()),
+        key -> CompletableFuture.supplyAsync(() -> probe(key.getKey(), key.getValue()), executor));
+    references.add(Map.entry(fileReference, probe));
+  }
+
+  private Probe probe(Path file, FileType type) {
+    CueSheetContext probeContext = context.detached(); // its issues aren't shared between threads
+    try {
+      return new Probe(FileReference.sizeAndDurationOf(file, type, probeContext), probeContext, null);
+    } catch (IOException e) {
+      return new Probe(null, probeContext, e);
+    }
+  }
+
+  /**
+   * Waits for all the probes, then sets the references' SizeAndDuration and merges the probes' issues into the context
+   * @throws IOException the first one in FILE order, as reading the sheet sequentially would have
+   */
+  void await() throws IOException {
+    Set<Probe> merged = new HashSet<>();
+    for (Map.Entry<FileReference, CompletableFuture<Probe>> reference : references) {
+      Probe probe;
+      try {
+        probe = reference.getValue().join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+
+      if (merged.add(probe)) {
+        probe.context.getIssues().forEach(context::addIssue);
+        if (probe.exception != null) {
+          throw probe.exception;
+        }
+      }
+      reference.getKey().setSizeAndDuration(probe.sizeAndDuration);
+    }
+  }
+
+
+  @AllArgsConstructor
+  private static final class Probe {
+    private final SizeAndDuration sizeAndDuration;
+    private final CueSheetContext context;
+    private final IOException exception;
+  }
+}
@@ -0,0 +1,435 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A library-level store of read sheets: one append-only file of {@link CueDiscCodec encoded} discs,
+ * and an in-memory index of the offsets of the latest record of each cue file.
+ * - each record keeps its cue file's last modified time, size and content hash, along with the read's issues and charset,
+ * - each record also keeps the options the sheet was read with that make a difference to the readout (charset, rounding, leniencies), other options are a miss,
+ * - a sheet whose time and size are unchanged (or whose content is, when only touched) is decoded from the file, else it's read and appended,
+ * - lazily referenced files are probed before being recorded, so that a decoded disc has their sizes and durations,
+ * - a record that didn't make it whole to the disk (eg: a crash while appending) is dropped on opening, along with what follows it,
+ * - a whole record that cannot be parsed is skipped on opening, one that cannot be decoded is a miss: either way the sheet is read again,
+ * - superseded records stay in the file until {@link #compact()}.
+ * Safe for concurrent use within one JVM: concurrent reads of the same sheet wait for a single one to record it, reads of different
+ * sheets don't wait on each other. Not meant to be shared between processes.
+ */
+@Slf4j
+public final class CueCatalog implements Closeable {
+
+  public static final int MAGIC = 0x43554543; // "CUEC"
+  public static final int VERSION = 2;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES; // body length, body CRC
+
+  @Getter
+  private final Path file;
+  private FileChannel channel;
+  private long end; // where the next record goes
+  private Map<Path, Entry> entries = new HashMap<>(); // guarded by this
+  private final Map<Path, Object> loads = new ConcurrentHashMap<>(); // one lock per cue file, so that it's read and recorded once
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+
+  private CueCatalog(Path file, FileChannel channel) {
+    this.file = file;
+    this.channel = channel;
+  }
+
+  /**
+   * Creates the file if it doesn't exist
+   */
+  public static CueCatalog open(@NonNull Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      CueCatalog catalog = new CueCatalog(file, channel);
+      catalog.load();
+      return catalog;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void load() throws IOException {
+    entries = new HashMap<>();
+    end = load(channel, entries);
+  }
+
+  /**
+   * Scans the file through one transient mapping, fills the entries and drops incomplete records
+   * @return where the next record goes
+   */
+  private long load(FileChannel channel, Map<Path, Entry> entries) throws IOException {
+    long size = channel.size();
+    if (size == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+      writeFully(channel, header, 0);
+      return HEADER_SIZE;
+    } else if (size > Integer.MAX_VALUE) {
+      throw new IOException("Cue catalog too large: " + file);
+    }
+
+    ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    if (size < HEADER_SIZE || bytes.getInt(0) != MAGIC) {
+      throw new IOException("Not a cue catalog: " + file);
+    } else if (bytes.getInt(Integer.BYTES) != VERSION) {
+      throw new IOException("Unsupported cue catalog version: " + bytes.getInt(Integer.BYTES));
+    }
+
+    long position = HEADER_SIZE;
+    while (true) {
+      Entry entry;
+      try {
+        entry = readRecord(bytes, (int) position, position);
+      } catch (IOException e) { // whole yet unreadable, the next one may be fine
+        log.warn("Skipping record of {}", file, e);
+        position += RECORD_HEADER_SIZE + bytes.getInt((int) position);
+        continue;
+      }
+      if (entry == null) {
+        break;
+      }
+      entries.put(entry.cueFile, entry);
+      position = entry.end;
+    }
+    if (position < size) {
+      log.warn("Dropping {} bytes of incomplete records at the end of {}", size - position, file);
+      channel.truncate(position);
+    }
+    return position;
+  }
+
+  /**
+   * @param start where the record is in bytes
+   * @param position where the record is in the file, which the entry's offsets are based on
+   * @return null when there's no whole record there
+   * @throws IOException when the record is whole but malformed
+   */
+  private static Entry readRecord(ByteBuffer bytes, int start, long position) throws IOException {
+    if (start + (long) RECORD_HEADER_SIZE > bytes.limit()) {
+      return null;
+    }
+    int length = bytes.getInt(start);
+    int crc = bytes.getInt(start + Integer.BYTES);
+    int bodyStart = start + RECORD_HEADER_SIZE;
+    if (length < 0 || bodyStart + (long) length > bytes.limit()) {
+      return null;
+    }
+
+    ByteBuffer body = bytes.duplicate().position(bodyStart).limit(bodyStart + length).slice();
+    CRC32 crc32 = new CRC32();
+    crc32.update(body.duplicate());
+    if ((int) crc32.getValue() != crc) {
+      return null;
+    }
+
+    try {
+      Entry entry = new Entry();
+      entry.recordStart = position;
+      entry.cueFile = Path.of(getString(body));
+      entry.lastModifiedMillis = body.getLong();
+      entry.size = body.getLong();
+      entry.hash = new byte[body.get() & 0xFF];
+      body.get(entry.hash);
+      entry.options = getString(body);
+      entry.charset = getString(body);
+      entry.charsetOrigin = getString(body);
+      int issueCount = body.getInt();
+      entry.issues = new ArrayList<>(issueCount);
+      for (int i = 0; i < issueCount; i++) {
+        entry.issues.add(getString(body));
+      }
+      entry.discStart = position + RECORD_HEADER_SIZE + body.position();
+      entry.end = position + RECORD_HEADER_SIZE + length;
+      return entry;
+    } catch (BufferUnderflowException | IllegalArgumentException e) { // CRC is fine, so it's not a torn write
+      throw new IOException("Corrupted record at " + position, e);
+    }
+  }
+
+  /**
+   * @return the readout of the cue file, decoded from the catalog if its record is fresh, else read with the reader and recorded
+   */
+  public CueSheetReadout readCueSheet(@NonNull Path cueFile, @NonNull CueSheetReader reader, @NonNull CueOptions options) throws IOException, BadCharsetException {
+    Path key = cueFile.toAbsolutePath().normalize();
+    synchronized (loads.computeIfAbsent(key, k -> new Object())) { // others reading it meanwhile then hit its new record
+      BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class); // before reading: a file changing meanwhile will be stale next time
+      String stamp = stampOf(options);
+      Entry entry = getEntry(key);
+      if (entry != null && entry.options.equals(stamp)) {
+        boolean fresh = entry.lastModifiedMillis == attrs.lastModifiedTime().toMillis() && entry.size == attrs.size();
+        if (!fresh && entry.size == attrs.size()) { // maybe just touched
+          fresh = Arrays.equals(CueTools.hash(key), entry.hash);
+        }
+        ByteBuffer disc = fresh ? readDisc(entry) : null;
+        if (disc != null) {
+          try {
+            CueSheetReadout readout = decode(entry, disc, options);
+            hits.increment();
+            return readout;
+          } catch (IOException | IllegalArgumentException e) { // read again, its new record supersedes this one
+            log.warn("Could not decode the record of {}", key, e);
+          }
+        }
+      }
+
+      misses.increment();
+      MessageDigest digest = CueTools.newDigest();
+      CueSheetReadout readout = reader.readCueSheet(key, options, digest); // hashed on the way, not read twice
+      probe(readout.getDisc()); // outside of the catalog's lock
+      append(key, attrs, digest.digest(), stamp, readout);
+      return readout;
+    }
+  }
+
+  /**
+   * Only what changes the readout, so that reads with other executors still hit
+   */
+  private static String stampOf(CueOptions options) {
+    return String.join(",",
+        String.valueOf(options.getCharset()),
+        options.getRounding().name(),
+        String.valueOf(options.isTimeCodeLeniency()),
+        String.valueOf(options.isIsrcLeniency()),
+        String.valueOf(options.isFileLeniency()));
+  }
+
+  /**
+   * A decoded reference cannot be probed later on, so lazy ones are probed now.
+   * Their issues land on the readout's context, before it's recorded.
+   */
+  private static void probe(CueDisc disc) {
+    for (CueFile file : disc.getFiles()) {
+      file.getSizeAndDuration();
+    }
+  }
+
+  private synchronized Entry getEntry(Path key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Positional read, under the lock so that the file isn't compacted meanwhile
+   * @return the encoded disc, null if the entry was superseded or compacted away since it was got
+   */
+  private synchronized ByteBuffer readDisc(Entry entry) throws IOException {
+    if (entries.get(entry.cueFile) != entry) {
+      return null;
+    }
+    ByteBuffer disc = ByteBuffer.allocate((int) (entry.end - entry.discStart));
+    long position = entry.discStart;
+    while (disc.hasRemaining()) {
+      int read = channel.read(disc, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of " + file);
+      }
+      position += read;
+    }
+    return disc.flip();
+  }
+
+  private CueSheetReadout decode(Entry entry, ByteBuffer disc, CueOptions options) throws IOException {
+    CueSheetContext context = new CueSheetContext(entry.cueFile, options);
+    if (entry.charset != null) {
+      context.setCharset(Charset.forName(entry.charset), entry.charsetOrigin != null ? CharsetOrigin.valueOf(entry.charsetOrigin) : null);
+    }
+    entry.issues.forEach(issue -> context.addIssue(new CueSheetIssue(issue)));
+    return new CueSheetReadout(CueDiscCodec.decode(disc), context);
+  }
+
+  private synchronized void append(Path key, BasicFileAttributes attrs, byte[] hash, String stamp, CueSheetReadout readout) throws IOException {
+    CueSheetContext context = readout.getContext();
+    List<byte[]> strings = new ArrayList<>();
+    strings.add(utf8(key.toString()));
+    strings.add(utf8(stamp));
+    strings.add(utf8(context.getCharset() != null ? context.getCharset().name() : null));
+    strings.add(utf8(context.getCharsetOrigin() != null ? context.getCharsetOrigin().name() : null));
+    context.getIssues().forEach(issue -> strings.add(utf8(issue.getMessage())));
+    ByteBuffer disc = CueDiscCodec.encode(readout.getDisc());
+
+    int length = 2 * Long.BYTES + 1 + hash.length + Integer.BYTES + disc.remaining()
+        + strings.stream().mapToInt(str -> Integer.BYTES + (str != null ? str.length : 0)).sum();
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+    record.position(RECORD_HEADER_SIZE);
+    putString(record, strings.get(0));
+    record.putLong(attrs.lastModifiedTime().toMillis())
+          .putLong(attrs.size())
+          .put((byte) hash.length)
+          .put(hash);
+    putString(record, strings.get(1));
+    putString(record, strings.get(2));
+    putString(record, strings.get(3));
+    record.putInt(strings.size() - 4);
+    strings.subList(4, strings.size()).forEach(str -> putString(record, str));
+    record.put(disc);
+
+    CRC32 crc32 = new CRC32();
+    crc32.update(record.array(), RECORD_HEADER_SIZE, length);
+    record.putInt(0, length).putInt(Integer.BYTES, (int) crc32.getValue()).flip();
+
+    long start = end;
+    writeFully(channel, record.duplicate(), start);
+    end = start + record.capacity();
+
+    Entry entry = readRecord(record, 0, start); // parsed as any later read, with file offsets only
+    entries.put(key, entry);
+  }
+
+  /**
+   * Rewrites the file with the latest record of each cue file that still exists, then replaces the current file with it.
+   */
+  public synchronized void compact() throws IOException {
+    Path compacted = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+        writeFully(out, header, 0);
+        long position = HEADER_SIZE;
+        for (Entry entry : entries.values()) {
+          if (Files.exists(entry.cueFile)) {
+            position += transferFully(entry.recordStart, entry.end - entry.recordStart, out, position);
+          }
+        }
+        out.force(true);
+      }
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) { // the catalog is left as it was
+      Files.deleteIfExists(compacted);
+      throw e;
+    }
+
+    // the current channel now points to the replaced file, still fine to read entries from until the swap
+    FileChannel compactedChannel = null;
+    try {
+      compactedChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      Map<Path, Entry> compactedEntries = new HashMap<>();
+      long compactedEnd = load(compactedChannel, compactedEntries);
+      FileChannel previous = channel;
+      channel = compactedChannel;
+      entries = compactedEntries;
+      end = compactedEnd;
+      compactedChannel = previous; // to be closed
+    } finally {
+      if (compactedChannel != null) {
+        compactedChannel.close();
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel.isOpen()) {
+      channel.force(false);
+      channel.close();
+    }
+  }
+
+
+  private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+    while (bytes.hasRemaining()) {
+      position += channel.write(bytes, position);
+    }
+  }
+
+  /**
+   * @return count
+   */
+  private long transferFully(long position, long count, FileChannel target, long targetPosition) throws IOException {
+    long transferred = 0;
+    while (transferred < count) {
+      long written = channel.transferTo(position + transferred, count - transferred, target.position(targetPosition + transferred));
+      if (written <= 0) {
+        throw new IOException("Unexpected end of " + file);
+      }
+      transferred += written;
+    }
+    return count;
+  }
+
+  private static byte[] utf8(String str) {
+    return str != null ? str.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private static void putString(ByteBuffer bytes, byte[] utf8) {
+    if (utf8 == null) {
+      bytes.putInt(-1);
+    } else {
+      bytes.putInt(utf8.length).put(utf8);
+    }
+  }
+
+  private static String getString(ByteBuffer bytes) {
+    int length = bytes.getInt();
+    if (length < 0) {
+      return null;
+    } else if (length > bytes.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    byte[] utf8 = new byte[length];
+    bytes.get(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+
+  private static final class Entry {
+    private Path cueFile;
+    private long lastModifiedMillis;
+    private long size;
+    private byte[] hash;
+    private String options; // see stampOf
+    private String charset;
+    private String charsetOrigin;
+    private List<String> issues;
+    private long recordStart; // offsets in the file, no mapping kept
+    private long discStart;
+    private long end;
+  }
+}
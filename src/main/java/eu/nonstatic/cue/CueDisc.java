@@ -22,8 +22,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -75,6 +77,12 @@ public class CueDisc implements CueIterable<CueFile> {
   private final List<CueFile> files;
   private final List<CueRemark> remarks;
   private final List<CueOther> others;
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private Snapshot snapshot; // only set on a frozen disc
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private int modCount; // bumped on any change to the files or to their tracks
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private TrackTable trackTable; // stale once modCount moved on
 
   public CueDisc() {
     this(DEFAULT_CHARSET);
@@ -102,22 +110,65 @@ public class CueDisc implements CueIterable<CueFile> {
     files.forEach(this::addFile);
   }
 
+  public CueDisc deepCopy() {
+    CueDisc discCopy = new CueDisc(path, charset);
+    discCopy.title = title;
+    discCopy.performer = performer;
+    discCopy.songwriter = songwriter;
+    discCopy.catalog = catalog;
+    discCopy.cdTextFile = cdTextFile;
+    discCopy.firstTrackNumber = firstTrackNumber;
+    files.forEach(file -> discCopy.addFileUnsafe(file.deepCopy()));
+    discCopy.remarks.addAll(remarks);
+    discCopy.others.addAll(others);
+    return discCopy;
+  }
+
+  /**
+   * @return a deeply immutable copy of this disc, with its tracks numbered, its files probed, and its tracks, indexes, durations and sizes computed beforehand.
+   * Its read methods have no side effects, so that any number of threads may query it without locking, once safely published.
+   * Its mutators throw UnsupportedOperationException, deepCopy() gives a mutable disc back.
+   */
+  public CueDisc freeze() {
+    if(isFrozen()) {
+      return this;
+    }
+    CueDisc discCopy = deepCopy();
+    discCopy.files.forEach(CueFile::freeze);
+    discCopy.renumberTracks(); // the track table is never stale from now on
+    discCopy.snapshot = new Snapshot(discCopy);
+    return discCopy;
+  }
+
+  public boolean isFrozen() {
+    return snapshot != null;
+  }
+
+  public void setCharset(Charset charset) {
+    CueTools.validateNotFrozen(isFrozen());
+    this.charset = charset;
+  }
+
   public void setTitle(String title) {
+    CueTools.validateNotFrozen(isFrozen());
     CueTools.validateCdText("title", title);
     this.title = title;
   }
 
   public void setPerformer(String performer) {
+    CueTools.validateNotFrozen(isFrozen());
     CueTools.validateCdText("performer", performer);
     this.performer = performer;
   }
 
   public void setSongwriter(String songwriter) {
+    CueTools.validateNotFrozen(isFrozen());
     CueTools.validateCdText("songwriter", songwriter);
     this.songwriter = songwriter;
   }
 
   public void setCatalog(String catalog) {
+    CueTools.validateNotFrozen(isFrozen());
     if(catalog != null) {
       catalog = catalog.replace(" ", "");
 
@@ -132,9 +183,16 @@ public class CueDisc implements CueIterable<CueFile> {
     this.catalog = catalog;
   }
 
+  public void setCdTextFile(String cdTextFile) {
+    CueTools.validateNotFrozen(isFrozen());
+    this.cdTextFile = cdTextFile;
+  }
+
   public void setFirstTrackNumber(int firstTrackNumber) {
+    CueTools.validateNotFrozen(isFrozen());
     CueTools.validateTrackRange("firstTrackNumber", firstTrackNumber, CueTrack.TRACK_ONE, CueTrack.TRACK_MAX);
     this.firstTrackNumber = firstTrackNumber;
+    tracksModified();
   }
 
   @Override
@@ -142,6 +200,22 @@ public class CueDisc implements CueIterable<CueFile> {
     return new CueIterator<>(files);
   }
 
+  /**
+   * Visits this disc, then its files, their tracks and indexes, unless told to skip them. Tracks are left numbered as they are.
+   * @return TERMINATE if the visitor stopped the traversal, else CONTINUE
+   */
+  public CueVisitResult accept(CueVisitor visitor) {
+    CueVisitResult result = visitor.visitDisc(this);
+    if(result == CueVisitResult.CONTINUE) {
+      for (int i = 0; i < files.size(); i++) { // no iterator
+        if(files.get(i).accept(visitor) == CueVisitResult.TERMINATE) {
+          return CueVisitResult.TERMINATE;
+        }
+      }
+    }
+    return result == CueVisitResult.TERMINATE ? result : CueVisitResult.CONTINUE;
+  }
+
   public List<CueFile> getFiles() {
     return Collections.unmodifiableList(files);
   }
@@ -170,10 +244,11 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   public synchronized CueFile addFile(int idx, CueFile file) {
+    CueTools.validateNotFrozen(isFrozen());
     // no dupe checking, one may use several times the same file and several times the same tracks
     CueTools.validateRange("File index", idx, 0, getFileCount());
 
-    CueFile fileCopy = new CueFile(file.fileReference);
+    CueFile fileCopy = new CueFile(file.referenceForCopy());
     for (CueTrack track : file) {
       fileCopy.addTrack(track);
     }
@@ -183,15 +258,23 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   protected void addFileUnsafe(CueFile file) {
+    CueTools.validateNotFrozen(isFrozen());
     files.add(file);
+    file.disc = this;
+    tracksModified();
   }
 
   protected void addFileUnsafe(int idx, CueFile file) {
+    CueTools.validateNotFrozen(isFrozen());
     files.add(idx, file);
+    file.disc = this;
+    tracksModified();
   }
 
   public void clearFiles() {
+    CueTools.validateNotFrozen(isFrozen());
     files.clear();
+    tracksModified();
   }
 
   public List<CueRemark> getRemarks() {
@@ -199,10 +282,12 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   public void addRemark(CueRemark remark) {
+    CueTools.validateNotFrozen(isFrozen());
     remarks.add(remark);
   }
 
   public void clearRemarks() {
+    CueTools.validateNotFrozen(isFrozen());
     remarks.clear();
   }
 
@@ -230,14 +315,21 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   public List<CueTrack> getTracks() {
-    return renumberTracks();
+    return getTrackTable().tracks;
   }
 
   public Map<Integer, CueTrack> getNumberedTracks() {
     return getTracks().stream().collect(Collectors.toMap(CueTrack::getNumber, Function.identity()));
   }
 
+  /**
+   * Unlike lookups, doesn't renumber the tracks
+   */
   public int getTrackCount() {
+    TrackTable table = trackTable;
+    if(table != null && table.modCount == modCount) {
+      return table.tracks.size();
+    }
     return files.stream().mapToInt(CueFile::getTrackCount).sum();
   }
 
@@ -273,48 +365,39 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   private CueTrack getTrackUnsafe(int trackNumber) {
-    int number = firstTrackNumber;
-    for (CueFile file : files) {
-      for (CueTrack track : file) {
-        track.number = number; // renumbering on the fly
-        if(trackNumber == number) {
-          return track;
-        }
-        number++;
-      }
-      file.renumberingNecessary = false;
-    }
-    return null;
+    return getTrackTable().getTrack(trackNumber);
   }
 
   public CueTrack getLastTrack() {
-    List<CueTrack> tracks = renumberTracks(); // renumbering feels better than getting the last track of each file as long as it has tracks
+    List<CueTrack> tracks = getTracks();
     return tracks.isEmpty() ? null : tracks.get(tracks.size()-1);
   }
 
   public CueTrack removeTrack(int trackNumber) {
+    CueTools.validateNotFrozen(isFrozen());
     CueTools.validateTrackRange(RANGE_MESSAGE_TRACK_NUMBER, trackNumber, firstTrackNumber, getTrackCount());
 
-    CueTrack result = null;
-    int fileStart = firstTrackNumber;
-    for (CueFile file : files) {
-      int trackCount = file.getTrackCount();
-      if (fileStart + file.getTrackCount() > trackNumber) {
-        result = file.removeTrack(trackNumber - fileStart);
-        break;
-      } else {
-        fileStart += trackCount;
-      }
-    }
+    TrackTable table = getTrackTable();
+    int fileIdx = table.getFileIndex(trackNumber);
+    CueTrack result = files.get(fileIdx).removeTrack(trackNumber - table.fileStarts[fileIdx]);
     renumberTracks(); // optional but then the disc is accurate
     return result;
   }
 
+  /**
+   * @return an editor to apply several track moves, removals and insertions with a single repacking and renumbering
+   */
+  public CueDiscEditor edit() {
+    CueTools.validateNotFrozen(isFrozen());
+    return new CueDiscEditor(this);
+  }
+
   /**
    * In the end the file inside a CueFile may be used several times across the disc.
    * Not sure this is legit in the cue format, but we allow it.
    */
   public CueTrack moveTrackBefore(int movingNumber, int beforeNumber) {
+    CueTools.validateNotFrozen(isFrozen());
     Map<Integer, FileAndTrack> fileAndTracks = split();
     int trackCount = fileAndTracks.size();
 
@@ -345,6 +428,7 @@ public class CueDisc implements CueIterable<CueFile> {
    * Not sure this is legit in the cue format, but we allow it.
    */
   public synchronized CueTrack moveTrackAfter(int movingNumber, int afterNumber) {
+    CueTools.validateNotFrozen(isFrozen());
     Map<Integer, FileAndTrack> fileAndTracks = split();
     int trackCount = fileAndTracks.size();
 
@@ -373,18 +457,12 @@ public class CueDisc implements CueIterable<CueFile> {
   protected FileAndTrack chunk(int trackNumber) throws TrackNotFoundException {
     CueTools.validateTrackRange(RANGE_MESSAGE_TRACK_NUMBER, trackNumber, firstTrackNumber, getTrackCount());
 
-    int number = firstTrackNumber;
-    for (CueFile file : files) {
-      FileReference ft = file.fileReference;
-      for (CueTrack track : file) {
-        if (number == trackNumber) {
-          return new FileAndTrack(ft, track);
-        }
-        number++;
-      }
+    TrackTable table = getTrackTable();
+    int fileIdx = table.getFileIndex(trackNumber);
+    if(fileIdx < 0) {
+      throw new TrackNotFoundException(trackNumber); // unreachable
     }
-
-    throw new TrackNotFoundException(trackNumber); // unreachable
+    return new FileAndTrack(files.get(fileIdx).fileReference, table.getTrack(trackNumber));
   }
 
   /**
@@ -392,12 +470,48 @@ public class CueDisc implements CueIterable<CueFile> {
    * Tracks are also renumbered on the fly
    */
   public void repackFiles() {
+    CueTools.validateNotFrozen(isFrozen());
     repackFiles(split().values()); // split does renumbering too
   }
 
-  private void repackFiles(Collection<FileAndTrack> ftCollection) {
+  void repackFiles(Collection<FileAndTrack> ftCollection) {
     this.files.clear();
     this.files.addAll(join(ftCollection));
+    files.forEach(file -> file.disc = this);
+    tracksModified();
+  }
+
+  void tracksModified() {
+    modCount++;
+  }
+
+  int getModCount() {
+    return modCount;
+  }
+
+  /**
+   * Rebuilt on first need after a change, renumbering the tracks on the way, so that lookups neither walk the files nor renumber.
+   */
+  private TrackTable getTrackTable() {
+    TrackTable table = trackTable;
+    if(table == null || table.modCount != modCount) {
+      table = trackTable = new TrackTable(this);
+    }
+    return table;
+  }
+
+  /**
+   * @return true if there's an empty file or if consecutive files refer to the same file, which repackFiles() merges
+   */
+  private boolean isRepackingNecessary() {
+    FileReference previous = null;
+    for (CueFile file : files) {
+      if(file.getTrackCount() == 0 || file.fileReference.equals(previous)) {
+        return true;
+      }
+      previous = file.fileReference;
+    }
+    return false;
   }
 
   public boolean isRenumberingNecessary() {
@@ -405,16 +519,10 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   public List<CueTrack> renumberTracks() {
-    var result = new ArrayList<CueTrack>();
-    int number = firstTrackNumber;
-    for (CueFile file : files) {
-      for (CueTrack track : file) {
-        track.number = number++;
-        result.add(track);
-      }
-      file.renumberingNecessary = false;
+    if(!isFrozen()) { // else numbered once and for all
+      trackTable = new TrackTable(this);
     }
-    return result;
+    return trackTable.tracks;
   }
 
   /**
@@ -454,6 +562,9 @@ public class CueDisc implements CueIterable<CueFile> {
 
 
   public List<CueIndex> getIndexes() {
+    if(isFrozen()) {
+      return snapshot.indexes;
+    }
     return files.stream().flatMap(file -> file.getIndexes().stream()).collect(Collectors.toList());
   }
 
@@ -466,10 +577,12 @@ public class CueDisc implements CueIterable<CueFile> {
   }
 
   public void addOther(CueOther other) {
+    CueTools.validateNotFrozen(isFrozen());
     others.add(other);
   }
 
   public void clearOthers() {
+    CueTools.validateNotFrozen(isFrozen());
     others.clear();
   }
 
@@ -480,55 +593,40 @@ public class CueDisc implements CueIterable<CueFile> {
    * Note: timecodes are set within their respective files, no overall chaining check is necessary
    * @param options
    * @return
+   * @see CueValidator to select the rules
    */
   public CueIssues checkConsistency(CueWriteOptions options) {
-    repackFiles(); // optimization + renumbering, else some track-related error messages might be misleading
-
-    var issues = new CueIssues();
-
-    try {
-      int trackCount = getTrackCount();
-      int minTrackCount = options.isNoTrackAllowed() ? 0 : 1;
-      CueTools.validateRange("Tracks count", trackCount, minTrackCount, CueTrack.TRACK_MAX);
-      CueTools.validateRange("Track max", firstTrackNumber + trackCount - 1, minTrackCount, CueTrack.TRACK_MAX);
-    } catch (IllegalArgumentException e) {
-      issues.add(e);
-    }
-
-    files.forEach(file -> issues.addAll(file.checkConsistency(options.isOrderedTimeCodes())));
-
-    // check min track duration
-    Duration minTrackDuration = options.getMinTrackDuration();
-    if(minTrackDuration != null) {
-      Map<CueTrack, Duration> tracksDurations = getTracksDurations();
-
-      boolean seenFirst = false;
-      for (Map.Entry<CueTrack, Duration> entry : tracksDurations.entrySet()) {
-        // Adding lead-in time on first track. Originally the min track duration is meant to always have a seek window margin of 2 seconds,
-        // even when rewinding to the first index of the first track (which is then 2 seconds minimum). Lead-in is there even if there's a hidden track.
-        Duration trackDuration = entry.getValue();
-        if(!seenFirst) {
-          seenFirst = true;
-          trackDuration = trackDuration.plus(CueDisc.DURATION_LEAD_IN);
-        }
+    return CueValidator.builder().options(options).build().validate(this);
+  }
 
-        if (trackDuration.compareTo(minTrackDuration) < 0) {
-          Integer trackNumber = entry.getKey().getNumber();
-          issues.add(String.format("Track %s duration %s is below %s", trackNumber, trackDuration, minTrackDuration));
-        }
+  /**
+   * Repacks the files if necessary, else only renumbers the tracks, before checking rules.
+   */
+  void prepareChecking() {
+    if(!isFrozen()) { // a frozen disc is numbered already
+      if(isRepackingNecessary()) {
+        repackFiles(); // optimization + renumbering, else some track-related error messages might be misleading
+      } else {
+        renumberTracks(); // keeping the files and their checks, which stand as long as the numbers are the same
       }
     }
+  }
 
-    // check disc size
-    Long burningLimit = options.getBurningLimit();
-    if(burningLimit != null) {
-      long sizeOnDisc = getSizeOnDisc();
-      if (sizeOnDisc > burningLimit) {
-        issues.add(new TooMuchDataException(burningLimit, sizeOnDisc));
+  /**
+   * Same as getSizeOnDisc(), from the files' cached gaps sizes
+   */
+  long getCheckedSizeOnDisc() {
+    long totalSize = SizeAndDuration.getCompactDiscBytesFrom(DURATION_LEAD_IN, TimeCodeRounding.CLOSEST);
+    for (CueFile file : files) {
+      SizeAndDuration sizeAndDuration = file.getSizeAndDuration();
+      if(sizeAndDuration != null) {
+        totalSize += sizeAndDuration.size;
+      } else {
+        throw new NullPointerException(file.getFile() + ": missing size");
       }
+      totalSize += file.getCheckedGapsSize();
     }
-
-    return issues;
+    return totalSize;
   }
 
   public boolean isSizesAndDurationsSet() {
@@ -545,6 +643,9 @@ public class CueDisc implements CueIterable<CueFile> {
    * @throws NegativeDurationException if the file's duration is not sufficient, making that last track's duration negative which is illogical (not enough data to play/burn)
    */
   public Map<CueTrack, Duration> getTracksDurations() {
+    if(isFrozen() && snapshot.tracksDurations != null) {
+      return snapshot.tracksDurations;
+    }
     var tracksDurations = new LinkedHashMap<CueTrack, Duration>(); // linked to preserve order
     for (CueFile file : files) {
       tracksDurations.putAll(file.getTracksDurations());
@@ -556,21 +657,29 @@ public class CueDisc implements CueIterable<CueFile> {
    * @return bytes on disc including lead-in, excluding lead-out
    */
   public long getSizeOnDisc() {
-    // Initial mandatory lead-in as per specification EVEN if there is a cuefile pregap or a hidden track
-    // (the lead in is actually silence with the TOC as subcode)
-    long totalSize = SizeAndDuration.getCompactDiscBytesFrom(DURATION_LEAD_IN, TimeCodeRounding.CLOSEST);
+    if(isFrozen() && snapshot.sizeOnDisc != null) {
+      return snapshot.sizeOnDisc;
+    }
+    var sizer = new CueVisitor() {
+      // Initial mandatory lead-in as per specification EVEN if there is a cuefile pregap or a hidden track
+      // (the lead in is actually silence with the TOC as subcode)
+      long totalSize = SizeAndDuration.getCompactDiscBytesFrom(DURATION_LEAD_IN, TimeCodeRounding.CLOSEST);
 
-    for (CueFile file : files) {
-      SizeAndDuration sizeAndDuration = file.getSizeAndDuration();
-      if(sizeAndDuration != null) {
-        totalSize += sizeAndDuration.size;
-      } else {
-        throw new NullPointerException(file.getFile() + ": missing size");
+      @Override
+      public CueVisitResult visitFile(CueFile file) {
+        SizeAndDuration sizeAndDuration = file.getSizeAndDuration();
+        if(sizeAndDuration != null) {
+          totalSize += sizeAndDuration.size;
+        } else {
+          throw new NullPointerException(file.getFile() + ": missing size");
+        }
+        return CueVisitResult.CONTINUE;
       }
 
       // Gaps (index 00 to index 01) are supposed to be stored in the files - they may be silence or not - but there's still those artificial gaps to account for.
       // You shouldn't have preGap and Index 00 together in a cue sheet, makes no sense. Consistency check makes sure of it.
-      for (CueTrack cueTrack : file) {
+      @Override
+      public CueVisitResult visitTrack(CueTrack cueTrack) {
         TimeCode preGap = cueTrack.getPreGap();
         if(preGap != null) {
           totalSize += SizeAndDuration.getCompactDiscBytesFrom(preGap);
@@ -579,15 +688,20 @@ public class CueDisc implements CueIterable<CueFile> {
         if(postGap != null) {
           totalSize += SizeAndDuration.getCompactDiscBytesFrom(postGap);
         }
+        return CueVisitResult.SKIP_CHILDREN;
       }
-    }
+    };
+    accept(sizer);
 
     // Not entirely sure we should account for lead-out.
 
-    return totalSize;
+    return sizer.totalSize;
   }
 
   public Duration getDuration() {
+    if(isFrozen() && snapshot.duration != null) {
+      return snapshot.duration;
+    }
     Duration totalDuration = Duration.ZERO;
 
     for (CueFile file : files) {
@@ -603,4 +717,84 @@ public class CueDisc implements CueIterable<CueFile> {
 
     return totalDuration;
   }
+
+
+  /**
+   * Tracks in disc order, and the number of each file's first track, that is the prefix sums of the files' track counts.
+   */
+  private static final class TrackTable {
+    private final int modCount;
+    private final List<CueTrack> tracks;
+    private final int[] fileStarts; // one per file, plus the number following the last track
+
+    private TrackTable(CueDisc disc) {
+      List<CueFile> files = disc.files;
+      var numberedTracks = new ArrayList<CueTrack>();
+      this.modCount = disc.modCount;
+      this.fileStarts = new int[files.size() + 1];
+      int number = disc.firstTrackNumber;
+      for (int i = 0; i < files.size(); i++) {
+        CueFile file = files.get(i);
+        fileStarts[i] = number;
+        for (CueTrack track : file) {
+          track.number = number++;
+          numberedTracks.add(track);
+        }
+        file.renumberingNecessary = false;
+      }
+      fileStarts[files.size()] = number;
+      this.tracks = Collections.unmodifiableList(numberedTracks);
+    }
+
+    private CueTrack getTrack(int trackNumber) {
+      int idx = trackNumber - fileStarts[0];
+      return idx >= 0 && idx < tracks.size() ? tracks.get(idx) : null;
+    }
+
+    /**
+     * @return the index of the file holding that track, -1 if there's no such track
+     */
+    private int getFileIndex(int trackNumber) {
+      int fileCount = fileStarts.length - 1;
+      if(trackNumber < fileStarts[0] || trackNumber >= fileStarts[fileCount]) {
+        return -1;
+      }
+      int low = 0;
+      int high = fileCount - 1;
+      while(low < high) { // last file starting at or before that track, thus not an empty one
+        int mid = (low + high + 1) >>> 1;
+        if(fileStarts[mid] <= trackNumber) {
+          low = mid;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * What a frozen disc computes once. Computations that fail are left null, to fail again when called for.
+   */
+  private static final class Snapshot {
+    private final List<CueIndex> indexes;
+    private final Map<CueTrack, Duration> tracksDurations;
+    private final Long sizeOnDisc;
+    private final Duration duration;
+
+    private Snapshot(CueDisc disc) {
+      this.indexes = Collections.unmodifiableList(disc.getIndexes());
+      this.tracksDurations = compute(() -> Collections.unmodifiableMap(disc.getTracksDurations()));
+      this.sizeOnDisc = compute(disc::getSizeOnDisc);
+      this.duration = compute(disc::getDuration);
+    }
+
+    private static <T> T compute(Supplier<T> supplier) {
+      try {
+        return supplier.get();
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+  }
 }
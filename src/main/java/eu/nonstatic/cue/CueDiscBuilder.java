@@ -0,0 +1,198 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static eu.nonstatic.cue.CueWords.CATALOG;
+import static eu.nonstatic.cue.CueWords.CDTEXTFILE;
+import static eu.nonstatic.cue.CueWords.ISRC;
+import static eu.nonstatic.cue.CueWords.PERFORMER;
+import static eu.nonstatic.cue.CueWords.SONGWRITER;
+import static eu.nonstatic.cue.CueWords.TITLE;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * The handler building the CueDisc tree {@link CueSheetReader} hands out.
+ */
+class CueDiscBuilder implements CueSheetHandler {
+
+  private static final CueVisitor SCALED_INDEX_FINDER = new CueVisitor() {
+    @Override
+    public CueVisitResult visitIndex(CueIndex index) {
+      return index.isScaled100to75() ? CueVisitResult.TERMINATE : CueVisitResult.CONTINUE;
+    }
+  };
+
+  private static final CueVisitor INDEX_SCALER = new CueVisitor() {
+    @Override
+    public CueVisitResult visitIndex(CueIndex index) {
+      if(!index.isScaled100to75()) {
+        index.setTimeCode(index.getTimeCode().scale100to75());
+      }
+      return CueVisitResult.CONTINUE;
+    }
+  };
+
+  private final CueSheetContext context;
+  private final ConcurrentProber prober; // null when probing sequentially or lazily
+  @Getter
+  private CueDisc disc; // set on start, once the charset is known
+
+  private CueFile file;
+  private CueTrack track;
+  private int previousTrackNum; // number of the last track read from the previous file
+  private int fileTrackNum; // expected number of the tracks of the current file when chaining
+
+  CueDiscBuilder(CueSheetContext context) {
+    this.context = context;
+    CueOptions options = context.getOptions();
+    this.prober = (options.getProbeExecutor() != null && !options.isLazySizeAndDuration())
+        ? new ConcurrentProber(context, options.getProbeExecutor())
+        : null;
+  }
+
+  @Override
+  public void onStart(CueSheetContext context) {
+    disc = new CueDisc(context.getPath(), context.getCharset());
+  }
+
+  @Override
+  public void onDiscField(String keyword, String value) {
+    switch (keyword) {
+      case TITLE:
+        disc.setTitle(value);
+        break;
+      case PERFORMER:
+        disc.setPerformer(value);
+        break;
+      case SONGWRITER:
+        disc.setSongwriter(value);
+        break;
+      case CATALOG:
+        disc.setCatalog(value);
+        break;
+      case CDTEXTFILE:
+        disc.setCdTextFile(value);
+        break;
+      default:
+        throw new IllegalArgumentException("Not a disc field: " + keyword);
+    }
+  }
+
+  @Override
+  public void onFile(String fileName, FileType type) throws IOException {
+    FileReference fileReference;
+    Path filePath;
+    if(prober != null && (filePath = CueFile.resolve(fileName, context)) != null) {
+      fileReference = new FileReference(filePath.toString(), type);
+      prober.submit(fileReference, filePath); // probed while the rest of the sheet is being read
+    } else {
+      fileReference = CueFile.fromParentDir(fileName, type, context);
+    }
+    file = new CueFile(fileReference);
+    disc.addFileUnsafe(file);
+    fileTrackNum = previousTrackNum;
+  }
+
+  @Override
+  public void onTrack(int number, String type) {
+    track = new CueTrack(number, type);
+    file.addTrackUnsafe(track); // cannot control track numbers' consistency/chaining
+    file.renumberingNecessary = file.renumberingNecessary || (number != ++fileTrackNum);
+  }
+
+  @Override
+  public void onTrackField(String keyword, String value) {
+    switch (keyword) {
+      case TITLE:
+        track.setTitle(value);
+        break;
+      case PERFORMER:
+        track.setPerformer(value);
+        break;
+      case SONGWRITER:
+        track.setSongwriter(value);
+        break;
+      case ISRC:
+        if(track.setIsrc(value, context.getOptions().isIsrcLeniency())) {
+          context.addIssue(CueTrack.MESSAGE_BAD_ISRC, value);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Not a track field: " + keyword);
+    }
+  }
+
+  @Override
+  public void onIndex(int number, TimeCode timeCode) {
+    track.addIndex(new CueIndex(number, timeCode));
+  }
+
+  @Override
+  public void onPreGap(TimeCode preGap) {
+    track.setPreGap(preGap);
+  }
+
+  @Override
+  public void onPostGap(TimeCode postGap) {
+    track.setPostGap(postGap);
+  }
+
+  @Override
+  public void onFlags(List<CueFlag> flags) {
+    track.setFlags(flags);
+  }
+
+  @Override
+  public void onRemark(String tag, String value) {
+    CueRemark remark = new CueRemark(tag, value);
+    if (track != null) {
+      track.addRemark(remark);
+    } else {
+      disc.addRemark(remark);
+    }
+  }
+
+  @Override
+  public void onOther(String keyword, String value) {
+    CueOther other = new CueOther(keyword, value);
+    if (track != null) {
+      track.addOther(other);
+    } else {
+      disc.addOther(other);
+    }
+  }
+
+  @Override
+  public void onFileEnd() {
+    CueTrack latestTrack = file.getLastTrack();
+    if(latestTrack != null) { // a file without track may be possible on a peculiar cue sheet
+      previousTrackNum = latestTrack.number;
+    }
+    file = null;
+    track = null;
+  }
+
+  @Override
+  public void onEnd() throws IOException {
+    if(prober != null) {
+      prober.await();
+    }
+
+    // if some timecodes were straightened, the odds are that all the timecodes' frames of the sheet were in hundredths of a second
+    if(context.getOptions().isTimeCodeLeniency() && disc.accept(SCALED_INDEX_FINDER) == CueVisitResult.TERMINATE) {
+      disc.accept(INDEX_SCALER);
+    }
+  }
+}
@@ -0,0 +1,481 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Binary encoding of a CueDisc, meant to reload discs way faster than by parsing (and probing) their sheets again.
+ * Layout, all counts and numbers being unsigned varints:
+ * - header: magic, version,
+ * - payload length, then the payload: the string table section then the disc section, each one length-prefixed.
+ * Strings are written once in the table and referred to by their rank + 1, 0 meaning null.
+ * Timecodes are frame counts, so the raw text of a timecode read with leniency is not kept, only its value.
+ * Sizes and durations are kept as known at encoding time: a lazy probe that didn't happen yet is not triggered.
+ */
+public final class CueDiscCodec {
+
+  public static final int MAGIC = 0x43554542; // "CUEB"
+  public static final int VERSION = 1;
+
+  private static final int FILE_AUDIO = 1;
+  private static final int FILE_SIZE = 1 << 1;
+  private static final int FILE_DURATION = 1 << 2;
+  private static final int FILE_RENUMBERING = 1 << 3;
+
+  private static final CueFlag[] FLAGS = CueFlag.values();
+
+
+  private CueDiscCodec() {}
+
+
+  public static void encode(CueDisc disc, DataOutput out) throws IOException {
+    ByteBuffer encoded = encode(disc);
+    out.write(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining());
+  }
+
+  public static ByteBuffer encode(CueDisc disc) {
+    Encoder encoder = new Encoder();
+    encoder.writeDisc(disc);
+
+    Output out = new Output(encoder.strings.size() * 16 + encoder.out.size + 32);
+    out.writeInt(MAGIC);
+    out.writeVarLong(VERSION);
+    Output table = encoder.writeTable();
+    out.writeVarLong(sizeOfVarLong(table.size) + table.size + sizeOfVarLong(encoder.out.size) + encoder.out.size);
+    out.writeSection(table);
+    out.writeSection(encoder.out);
+    return ByteBuffer.wrap(out.bytes, 0, out.size);
+  }
+
+  public static CueDisc decode(DataInput in) throws IOException {
+    checkMagic(in.readInt());
+    checkVersion(readVarLong(in));
+
+    byte[] payload = new byte[checkLength(readVarLong(in))];
+    in.readFully(payload);
+    return decodePayload(ByteBuffer.wrap(payload));
+  }
+
+  /**
+   * @param bytes is positioned after the encoded disc
+   */
+  public static CueDisc decode(ByteBuffer bytes) throws IOException {
+    ByteBuffer payload;
+    try {
+      checkMagic(bytes.getInt());
+      checkVersion(readVarLong(bytes));
+      int length = checkLength(readVarLong(bytes));
+      if (length > bytes.remaining()) {
+        throw new BufferUnderflowException();
+      }
+      payload = bytes.slice();
+      payload.limit(length);
+      bytes.position(bytes.position() + length);
+    } catch (BufferUnderflowException e) { // the payload reports its own issues
+      throw new IOException("Truncated encoded disc", e);
+    } catch (IllegalArgumentException e) { // bad varint
+      throw new IOException("Corrupted encoded disc", e);
+    }
+    return decodePayload(payload);
+  }
+
+  private static CueDisc decodePayload(ByteBuffer payload) throws IOException {
+    try {
+      Decoder decoder = new Decoder(payload);
+      decoder.readTable();
+      return decoder.readDisc();
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) { // eg: unknown charset, setters' validation, bad varint
+      throw new IOException("Corrupted encoded disc", e);
+    }
+  }
+
+  private static void checkMagic(int magic) throws IOException {
+    if (magic != MAGIC) {
+      throw new IOException("Not an encoded disc: " + Integer.toHexString(magic));
+    }
+  }
+
+  private static void checkVersion(long version) throws IOException {
+    if (version != VERSION) {
+      throw new IOException("Unsupported encoded disc version: " + version);
+    }
+  }
+
+  private static int checkLength(long length) throws IOException {
+    if (length < 0) {
+      throw new IOException("Corrupted encoded disc length: " + length);
+    } else if (length > Integer.MAX_VALUE) {
+      throw new IOException("Encoded disc too large: " + length);
+    }
+    return (int) length;
+  }
+
+
+  private static final class Encoder {
+    private final Map<String, Integer> strings = new HashMap<>(); // ref by string
+    private final Output out = new Output(1024);
+
+    private void writeString(String str) {
+      if (str == null) {
+        out.writeVarLong(0);
+      } else {
+        Integer ref = strings.putIfAbsent(str, strings.size() + 1);
+        out.writeVarLong(ref != null ? ref : strings.size());
+      }
+    }
+
+    private Output writeTable() {
+      String[] table = new String[strings.size()];
+      strings.forEach((str, ref) -> table[ref - 1] = str);
+
+      Output tableOut = new Output(table.length * 16 + 8);
+      tableOut.writeVarLong(table.length);
+      for (String str : table) {
+        byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+        tableOut.writeVarLong(utf8.length);
+        tableOut.write(utf8, 0, utf8.length);
+      }
+      return tableOut;
+    }
+
+    private void writeDisc(CueDisc disc) {
+      writeString(disc.getPath());
+      writeString(disc.getCharset() != null ? disc.getCharset().name() : null);
+      writeString(disc.getTitle());
+      writeString(disc.getPerformer());
+      writeString(disc.getSongwriter());
+      writeString(disc.getCatalog());
+      writeString(disc.getCdTextFile());
+      out.writeVarLong(disc.getFirstTrackNumber());
+      writeRemarks(disc.getRemarks());
+      writeOthers(disc.getOthers());
+
+      List<CueFile> files = disc.getFiles();
+      out.writeVarLong(files.size());
+      for (CueFile file : files) {
+        writeFile(file);
+      }
+    }
+
+    private void writeFile(CueFile file) {
+      FileReference reference = file.fileReference;
+      SizeAndDuration sizeAndDuration = reference.sizeAndDuration; // not the getter: no probing from here
+      int fileFlags = (reference.type.isAudio() ? FILE_AUDIO : 0)
+          | (sizeAndDuration != null ? FILE_SIZE : 0)
+          | (sizeAndDuration != null && sizeAndDuration.duration != null ? FILE_DURATION : 0)
+          | (file.renumberingNecessary ? FILE_RENUMBERING : 0);
+
+      writeString(reference.file);
+      writeString(reference.type.getValue());
+      out.writeVarLong(fileFlags);
+      if (sizeAndDuration != null) {
+        out.writeVarLong(sizeAndDuration.size);
+        if (sizeAndDuration.duration != null) {
+          out.writeVarLong(sizeAndDuration.duration.toNanos());
+        }
+      }
+
+      List<CueTrack> tracks = file.getTracks();
+      out.writeVarLong(tracks.size());
+      for (CueTrack track : tracks) {
+        writeTrack(track);
+      }
+    }
+
+    private void writeTrack(CueTrack track) {
+      writeNullable(track.number);
+      writeString(track.getType());
+      writeString(track.getTitle());
+      writeString(track.getPerformer());
+      writeString(track.getSongwriter());
+      writeString(track.getIsrc());
+      writeTimeCode(track.getPreGap());
+      writeTimeCode(track.getPostGap());
+
+      Set<CueFlag> flags = track.getFlags();
+      out.writeVarLong(flags.size());
+      for (CueFlag flag : flags) {
+        out.writeVarLong(flag.ordinal());
+      }
+
+      List<CueIndex> indexes = track.getIndexes();
+      out.writeVarLong(indexes.size());
+      for (CueIndex index : indexes) {
+        writeNullable(index.number);
+        out.writeVarLong(index.getFrameCount());
+      }
+
+      writeRemarks(track.getRemarks());
+      writeOthers(track.getOthers());
+    }
+
+    private void writeRemarks(List<CueRemark> remarks) {
+      out.writeVarLong(remarks.size());
+      for (CueRemark remark : remarks) {
+        writeString(remark.getTag());
+        writeString(remark.getValue());
+      }
+    }
+
+    private void writeOthers(List<CueOther> others) {
+      out.writeVarLong(others.size());
+      for (CueOther other : others) {
+        writeString(other.getKeyword());
+        writeString(other.getValue());
+      }
+    }
+
+    private void writeNullable(Integer number) {
+      out.writeVarLong(number != null ? number + 1L : 0);
+    }
+
+    private void writeTimeCode(TimeCode timeCode) {
+      out.writeVarLong(timeCode != null ? timeCode.toFrameCount() + 1 : 0);
+    }
+  }
+
+
+  private static final class Decoder {
+    private final ByteBuffer in;
+    private String[] strings;
+
+    Decoder(ByteBuffer in) {
+      this.in = in;
+    }
+
+    private int readInt() {
+      return (int) readVarLong(in);
+    }
+
+    private void readTable() {
+      ByteBuffer section = readSection();
+      strings = new String[(int) readVarLong(section)];
+      for (int i = 0; i < strings.length; i++) {
+        int length = (int) readVarLong(section);
+        if (section.hasArray()) {
+          strings[i] = new String(section.array(), section.arrayOffset() + section.position(), length, StandardCharsets.UTF_8);
+          section.position(section.position() + length);
+        } else {
+          byte[] utf8 = new byte[length];
+          section.get(utf8);
+          strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+      }
+    }
+
+    private ByteBuffer readSection() {
+      int length = readInt();
+      ByteBuffer section = in.slice();
+      section.limit(length);
+      in.position(in.position() + length);
+      return section;
+    }
+
+    private String readString() {
+      int ref = readInt();
+      return ref == 0 ? null : strings[ref - 1];
+    }
+
+    private CueDisc readDisc() {
+      readInt(); // the section length, only there for a reader to skip it
+
+      String path = readString();
+      String charsetName = readString();
+      CueDisc disc = new CueDisc(path, charsetName != null ? Charset.forName(charsetName) : null);
+      disc.setTitle(readString());
+      disc.setPerformer(readString());
+      disc.setSongwriter(readString());
+      disc.setCatalog(readString());
+      disc.setCdTextFile(readString());
+      disc.setFirstTrackNumber(readInt());
+      readRemarks(disc::addRemark);
+      readOthers(disc::addOther);
+
+      int fileCount = readInt();
+      for (int f = 0; f < fileCount; f++) {
+        disc.addFileUnsafe(readFile());
+      }
+      return disc;
+    }
+
+    private CueFile readFile() {
+      String name = readString();
+      String typeValue = readString();
+      int fileFlags = readInt();
+
+      SizeAndDuration sizeAndDuration = null;
+      if ((fileFlags & FILE_SIZE) != 0) {
+        long size = readVarLong(in);
+        Duration duration = ((fileFlags & FILE_DURATION) != 0) ? Duration.ofNanos(readVarLong(in)) : null;
+        sizeAndDuration = new SizeAndDuration(size, duration);
+      }
+
+      CueFile file = new CueFile(new FileReference(name, fileTypeOf(typeValue, (fileFlags & FILE_AUDIO) != 0), sizeAndDuration));
+      file.renumberingNecessary = (fileFlags & FILE_RENUMBERING) != 0;
+      int trackCount = readInt();
+      for (int t = 0; t < trackCount; t++) {
+        file.addTrackUnsafe(readTrack());
+      }
+      return file;
+    }
+
+    private CueTrack readTrack() {
+      Integer number = readNullable();
+      CueTrack track = new CueTrack(number, readString());
+      track.setTitle(readString());
+      track.setPerformer(readString());
+      track.setSongwriter(readString());
+      track.setIsrcUnsafe(readString()); // as it was kept, normalized or leniently taken
+      track.setPreGap(readTimeCode());
+      track.setPostGap(readTimeCode());
+
+      int flagCount = readInt();
+      for (int i = 0; i < flagCount; i++) {
+        track.addFlag(FLAGS[readInt()]);
+      }
+
+      int indexCount = readInt();
+      for (int i = 0; i < indexCount; i++) {
+        Integer indexNumber = readNullable();
+        track.addIndexUnsafe(CueIndex.ofFrames(indexNumber, readVarLong(in)));
+      }
+
+      readRemarks(track::addRemark);
+      readOthers(track::addOther);
+      return track;
+    }
+
+    private void readRemarks(Consumer<CueRemark> consumer) {
+      int count = readInt();
+      for (int i = 0; i < count; i++) {
+        consumer.accept(new CueRemark(readString(), readString()));
+      }
+    }
+
+    private void readOthers(Consumer<CueOther> consumer) {
+      int count = readInt();
+      for (int i = 0; i < count; i++) {
+        consumer.accept(new CueOther(readString(), readString()));
+      }
+    }
+
+    private Integer readNullable() {
+      int number = readInt();
+      return number == 0 ? null : number - 1;
+    }
+
+    private TimeCode readTimeCode() {
+      long frames = readVarLong(in);
+      return frames == 0 ? null : CueIndex.timeCodeOf(frames - 1);
+    }
+  }
+
+  private static FileType fileTypeOf(String value, boolean audio) {
+    FileType type = FileType.ALL.get(value);
+    if (type != null && type.isAudio() == audio) {
+      return type;
+    }
+    return audio ? new FileType.Audio(value) : new FileType.Data(value);
+  }
+
+
+  static int sizeOfVarLong(long value) {
+    int size = 1;
+    while ((value >>>= 7) != 0) {
+      size++;
+    }
+    return size;
+  }
+
+  static long readVarLong(ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * A growable byte array, with no synchronization nor IOException unlike a ByteArrayOutputStream
+   */
+  private static final class Output {
+    private byte[] bytes;
+    private int size;
+
+    Output(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    private void ensure(int more) {
+      if (size + more > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+      }
+    }
+
+    void writeVarLong(long value) {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+      ensure(4);
+      bytes[size++] = (byte) (value >>> 24);
+      bytes[size++] = (byte) (value >>> 16);
+      bytes[size++] = (byte) (value >>> 8);
+      bytes[size++] = (byte) value;
+    }
+
+    void write(byte[] src, int off, int len) {
+      ensure(len);
+      System.arraycopy(src, off, bytes, size, len);
+      size += len;
+    }
+
+    void writeSection(Output section) {
+      writeVarLong(section.size);
+      write(section.bytes, 0, section.size);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import lombok.NonNull;
+
+/**
+ * Batches track moves, removals and insertions on a disc, see {@link CueDisc#edit()}.
+ * Each operation takes track numbers as they stand after the previous ones, like the disc's own methods would,
+ * but the disc is only split into tracks once, and its files joined and its tracks renumbered once on commit.
+ * The disc must not be modified in the meantime.
+ */
+public final class CueDiscEditor {
+
+  private static final String RANGE_MESSAGE_TRACK_NUMBER = "Track number";
+
+  private final CueDisc disc;
+  private final int firstTrackNumber;
+  private final int modCount;
+  private final List<FileAndTrack> tracks;
+  private boolean committed;
+
+  CueDiscEditor(CueDisc disc) {
+    this.disc = disc;
+    this.firstTrackNumber = disc.getFirstTrackNumber();
+    this.modCount = disc.getModCount();
+    this.tracks = new ArrayList<>(disc.getTrackCount() + 8);
+    for (CueFile file : disc) {
+      for (CueTrack track : file) {
+        tracks.add(new FileAndTrack(file.fileReference, track));
+      }
+    }
+  }
+
+  public int getTrackCount() {
+    return tracks.size();
+  }
+
+  /**
+   * Moves a track right before another one, like {@link CueDisc#moveTrackBefore(int, int)}
+   */
+  public CueDiscEditor moveTrackBefore(int movingNumber, int beforeNumber) {
+    int movingIdx = indexOf("Moving number", movingNumber);
+    int beforeIdx = indexOf("Before number", beforeNumber);
+    if(movingIdx != beforeIdx && movingIdx != beforeIdx - 1) {
+      FileAndTrack moving = tracks.remove(movingIdx);
+      tracks.add(beforeIdx < movingIdx ? beforeIdx : beforeIdx - 1, moving);
+    }
+    return this;
+  }
+
+  /**
+   * Moves a track right after another one, like {@link CueDisc#moveTrackAfter(int, int)}
+   */
+  public CueDiscEditor moveTrackAfter(int movingNumber, int afterNumber) {
+    int movingIdx = indexOf("Moving number", movingNumber);
+    int afterIdx = indexOf("After number", afterNumber);
+    if(movingIdx != afterIdx && movingIdx != afterIdx + 1) {
+      FileAndTrack moving = tracks.remove(movingIdx);
+      tracks.add(afterIdx < movingIdx ? afterIdx + 1 : afterIdx, moving);
+    }
+    return this;
+  }
+
+  public CueDiscEditor removeTrack(int trackNumber) {
+    tracks.remove(indexOf(RANGE_MESSAGE_TRACK_NUMBER, trackNumber));
+    return this;
+  }
+
+  /**
+   * Inserts a copy of the track so that it gets that number, in the file of the track it comes before (or after when last)
+   * @throws IllegalStateException if the disc has no track, thus no file to insert into
+   */
+  public CueDiscEditor insertTrack(int trackNumber, @NonNull CueTrack track) {
+    validateNotCommitted();
+    CueTools.validateTrackRange(RANGE_MESSAGE_TRACK_NUMBER, trackNumber, firstTrackNumber, tracks.size() + 1);
+    if(tracks.isEmpty()) {
+      throw new IllegalStateException("No file to insert the track into, insert a file instead");
+    }
+    int idx = trackNumber - firstTrackNumber;
+    FileReference fileReference = tracks.get(idx < tracks.size() ? idx : idx - 1).fileReference;
+    tracks.add(idx, new FileAndTrack(fileReference, track.deepCopy()));
+    return this;
+  }
+
+  /**
+   * Inserts copies of the file's tracks so that the first one gets that number
+   */
+  public CueDiscEditor insertFile(int trackNumber, @NonNull CueFile file) {
+    validateNotCommitted();
+    CueTools.validateTrackRange(RANGE_MESSAGE_TRACK_NUMBER, trackNumber, firstTrackNumber, tracks.size() + 1);
+    FileReference fileReference = file.referenceForCopy();
+    int idx = trackNumber - firstTrackNumber;
+    for (CueTrack track : file) {
+      tracks.add(idx++, new FileAndTrack(fileReference, track.deepCopy()));
+    }
+    return this;
+  }
+
+  /**
+   * @param trackNumbers every current track number, in the new order
+   */
+  public CueDiscEditor reorderTracks(@NonNull int... trackNumbers) {
+    validateNotCommitted();
+    if(trackNumbers.length != tracks.size()) {
+      throw new IllegalArgumentException("Expecting " + tracks.size() + " track numbers, got " + trackNumbers.length);
+    }
+    var seen = new boolean[trackNumbers.length];
+    var reordered = new ArrayList<FileAndTrack>(trackNumbers.length);
+    for (int trackNumber : trackNumbers) {
+      int idx = indexOf(RANGE_MESSAGE_TRACK_NUMBER, trackNumber);
+      if(seen[idx]) {
+        throw new IllegalArgumentException("Track number " + trackNumber + " is given twice");
+      }
+      seen[idx] = true;
+      reordered.add(tracks.get(idx));
+    }
+    tracks.clear();
+    tracks.addAll(reordered);
+    return this;
+  }
+
+  /**
+   * Joins the tracks back into files and renumbers them
+   * @return the disc's tracks
+   * @throws ConcurrentModificationException if the disc was modified since this editor was created
+   */
+  public List<CueTrack> commit() {
+    validateNotCommitted();
+    if(disc.getModCount() != modCount) {
+      throw new ConcurrentModificationException("The disc was modified while being edited");
+    }
+    committed = true;
+    disc.repackFiles(tracks);
+    return disc.renumberTracks();
+  }
+
+  private void validateNotCommitted() {
+    if(committed) {
+      throw new IllegalStateException("Already committed");
+    }
+  }
+
+  private int indexOf(String name, int trackNumber) {
+    validateNotCommitted();
+    CueTools.validateTrackRange(name, trackNumber, firstTrackNumber, tracks.size());
+    return trackNumber - firstTrackNumber;
+  }
+}
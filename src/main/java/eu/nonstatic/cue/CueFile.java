@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.EqualsAndHashCode;
@@ -42,6 +43,12 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
 
   private final ArrayList<CueTrack> tracks;
   protected boolean renumberingNecessary;
+  @EqualsAndHashCode.Exclude
+  private boolean frozen;
+  @EqualsAndHashCode.Exclude
+  CueDisc disc; // the disc holding this file, told about track changes
+  @EqualsAndHashCode.Exclude
+  private Checked checked; // null until checked, or once modified
 
   // FileAndFormat isn't a first class citizen, hence ctor visibility
   CueFile(FileReference fileReference) {
@@ -81,10 +88,11 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
 
   @Override
   public SizeAndDuration getSizeAndDuration() {
-    return fileReference.getSizeAndDuration();
+    return frozen ? fileReference.sizeAndDuration : fileReference.getSizeAndDuration(); // probed when frozen
   }
 
   public void setSizeAndDuration(SizeAndDuration sizeAndDuration) {
+    modified();
     fileReference.setSizeAndDuration(sizeAndDuration);
   }
 
@@ -99,16 +107,61 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
   }
 
   public CueFile deepCopy() {
-    CueFile fileCopy = new CueFile(fileReference);
+    CueFile fileCopy = new CueFile(referenceForCopy());
     tracks.forEach(track -> fileCopy.addTrackUnsafe(track.deepCopy()));
     return fileCopy;
   }
 
+  /**
+   * Copies share the file reference, so that it's probed only once, but for a frozen file which owns its own.
+   */
+  FileReference referenceForCopy() {
+    return frozen ? new FileReference(fileReference.file, fileReference.type, fileReference.sizeAndDuration) : fileReference;
+  }
+
+  /**
+   * Gives this file a reference of its own, so that changing its size and duration doesn't alter the copies it was made with
+   */
+  void ownReference() {
+    fileReference = fileReference.ownCopy();
+  }
+
+  /**
+   * Makes this file and its tracks read-only, see {@link CueDisc#freeze()}.
+   * Takes its own, probed, file reference as the current one may be shared with mutable copies.
+   */
+  void freeze() {
+    fileReference = new FileReference(fileReference.file, fileReference.type, fileReference.getSizeAndDuration());
+    renumberingNecessary = false;
+    tracks.forEach(CueTrack::freeze);
+    frozen = true;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
   @Override
   public CueIterator<CueTrack> iterator() {
     return new CueIterator<>(tracks);
   }
 
+  /**
+   * Visits this file, then its tracks unless told to skip them
+   * @return TERMINATE if the visitor stopped the traversal, else CONTINUE
+   */
+  public CueVisitResult accept(CueVisitor visitor) {
+    CueVisitResult result = visitor.visitFile(this);
+    if(result == CueVisitResult.CONTINUE) {
+      for (int i = 0; i < tracks.size(); i++) { // no iterator
+        if(tracks.get(i).accept(visitor) == CueVisitResult.TERMINATE) {
+          return CueVisitResult.TERMINATE;
+        }
+      }
+    }
+    return result == CueVisitResult.TERMINATE ? result : CueVisitResult.CONTINUE;
+  }
+
   public List<CueTrack> getTracks() {
     return Collections.unmodifiableList(tracks);
   }
@@ -140,7 +193,10 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
   }
 
   public void clearTracks() {
+    modified();
+    tracks.forEach(track -> track.file = null);
     tracks.clear();
+    tracksModified();
   }
 
   protected List<FileAndTrack> split() {
@@ -156,6 +212,7 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
   }
 
   public CueTrack addTrack(int idx, CueTrack track) {
+    modified();
     if(tracks.contains(track)) {
       throw new IllegalArgumentException("The file already contains this track");
     }
@@ -168,16 +225,41 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
   }
 
   protected void addTrackUnsafe(CueTrack track) {
+    modified();
     tracks.add(track);
+    track.file = this;
+    tracksModified();
   }
 
   protected void addTrackUnsafe(int idx, CueTrack track) {
+    modified();
     tracks.add(idx, track);
+    track.file = this;
+    tracksModified();
   }
 
   public CueTrack removeTrack(int idx) {
+    modified();
     CueTools.validateRange(RANGE_MESSAGE_TRACK_INDEX, idx, 0, tracks.size()-1);
-    return tracks.remove(idx);
+    CueTrack track = tracks.remove(idx);
+    track.file = null;
+    tracksModified();
+    return track;
+  }
+
+  private void tracksModified() {
+    if(disc != null) {
+      disc.tracksModified();
+    }
+  }
+
+  private void modified() {
+    CueTools.validateNotFrozen(frozen);
+    invalidate();
+  }
+
+  void invalidate() {
+    checked = null;
   }
 
   /**
@@ -205,7 +287,7 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
     CueTrack track = getTrack(idx); // first because I want range check
 
     if(isAudio()) {
-      Duration fileDuration = Optional.ofNullable(fileReference.sizeAndDuration).map(sd -> sd.duration).orElse(null);
+      Duration fileDuration = Optional.ofNullable(getSizeAndDuration()).map(sd -> sd.duration).orElse(null);
       int trackCount = tracks.size();
       CueTools.validateRange(RANGE_MESSAGE_TRACK_INDEX, idx, 0, trackCount - 1);
 
@@ -245,7 +327,7 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
    */
   public Map<CueTrack, Duration> getTracksDurations(boolean allowDisorderedTimeCodes) throws IllegalTrackTypeException, IndexNotFoundException, NegativeDurationException {
     if (!tracks.isEmpty() && isAudio()) { // tracks emptiness first in case fileAndType isn't set
-      Duration fileDuration = Optional.ofNullable(fileReference.sizeAndDuration)
+      Duration fileDuration = Optional.ofNullable(getSizeAndDuration())
           .map(sd -> sd.duration)
           .orElseThrow(() -> new IllegalArgumentException("No duration has been specified to get the last track's length for " + fileReference.file));
 
@@ -281,27 +363,159 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
    */
   public CueIssues checkConsistency(boolean orderedTimeCodes) {
     var issues = new CueIssues();
+    issues.addAll(getCheckedTracksIssues());
+    checkFirstIndex(issues);
+    if(orderedTimeCodes) {
+      issues.addAll(getCheckedChainingIssues());
+    }
+    return issues;
+  }
 
-    tracks.forEach(track -> issues.addAll(track.checkConsistency(false)));
-
-    // Make sure the first index of the first track has timecode 00:00:00.
-    Optional.ofNullable(getFirstTrack())
-      .map(CueTrack::getFirstIndex) // tracks consistency made sure there's >= 1 index per track, just avoiding NPE
-      .filter(firstIndex -> !TimeCode.ZERO_SECOND.equals(firstIndex.getTimeCode()))
-      .ifPresent(cueIndex -> issues.add(String.format("File %s doesn't have %s as its first track's first index", fileReference.file, TimeCode.ZERO_SECOND)));
+  /**
+   * @return the tracks' own issues, only checked again once this file or one of its tracks is modified, or its tracks renumbered. Not to be modified.
+   */
+  CueIssues getCheckedTracksIssues() {
+    Checked current = getChecked();
+    if(current.issues == null) {
+      check(current, false);
+    }
+    return current.issues;
+  }
 
+  /**
+   * @return the timecodes chaining issues, checked again as seldom as getCheckedTracksIssues(). Not to be modified.
+   */
+  CueIssues getCheckedChainingIssues() {
+    Checked current = getChecked();
+    if(current.chainingIssues == null) {
+      check(current, true);
+    }
+    return current.chainingIssues;
+  }
 
+  private void check(Checked current, boolean orderedTimeCodes) {
+    var checker = new ConsistencyChecker(orderedTimeCodes);
+    accept(checker); // tracks answer from their own cache
+    current.issues = checker.issues;
     if(orderedTimeCodes) {
-      CueIndex latestIndex = null;
-      for (CueTrack track : getTracks()) {
+      current.chainingIssues = checker.chainingIssues;
+    }
+  }
+
+  /**
+   * @return getTracksDurations(), only computed again once this file or one of its tracks is modified. Not to be modified.
+   */
+  Map<CueTrack, Duration> getCheckedTracksDurations() {
+    Checked current = getChecked();
+    if(current.tracksDurations == null) {
+      current.tracksDurations = getTracksDurations(); // not kept when throwing, so that it throws again
+    }
+    return current.tracksDurations;
+  }
+
+  /**
+   * @return the bytes of the tracks' pregaps and postgaps, which aren't in the file, only computed again once this file or one of its tracks is modified
+   */
+  long getCheckedGapsSize() {
+    Checked current = getChecked();
+    if(current.gapsSize < 0) {
+      long gapsSize = 0;
+      for (CueTrack track : tracks) {
+        TimeCode preGap = track.getPreGap();
+        if(preGap != null) {
+          gapsSize += SizeAndDuration.getCompactDiscBytesFrom(preGap);
+        }
+        TimeCode postGap = track.getPostGap();
+        if(postGap != null) {
+          gapsSize += SizeAndDuration.getCompactDiscBytesFrom(postGap);
+        }
+      }
+      current.gapsSize = gapsSize;
+    }
+    return current.gapsSize;
+  }
+
+  /**
+   * The disc renumbers tracks without modifying them, and a file reference may be shared and probed later on, hence the key.
+   * A frozen file never changes but never caches either: it may be read from several threads.
+   */
+  private Checked getChecked() {
+    CueTrack firstTrack = getFirstTrack();
+    Integer firstTrackNumber = firstTrack != null ? firstTrack.getNumber() : null;
+    SizeAndDuration sizeAndDuration = fileReference.sizeAndDuration; // not probing for issues that don't need it
+    Checked current = checked;
+    if(current == null || current.fileReference != fileReference || current.sizeAndDuration != sizeAndDuration || !Objects.equals(current.firstTrackNumber, firstTrackNumber)) {
+      current = new Checked(fileReference, sizeAndDuration, firstTrackNumber);
+      if(!frozen) {
+        checked = current;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * What was checked or computed on this file since its last modification, each part being filled on first need
+   */
+  private static final class Checked {
+    private final FileReference fileReference;
+    private final SizeAndDuration sizeAndDuration;
+    private final Integer firstTrackNumber;
+    private CueIssues issues;
+    private CueIssues chainingIssues;
+    private Map<CueTrack, Duration> tracksDurations;
+    private long gapsSize = -1;
+
+    private Checked(FileReference fileReference, SizeAndDuration sizeAndDuration, Integer firstTrackNumber) {
+      this.fileReference = fileReference;
+      this.sizeAndDuration = sizeAndDuration;
+      this.firstTrackNumber = firstTrackNumber;
+    }
+  }
+
+  /**
+   * Makes sure the first index of the first track has timecode 00:00:00.
+   */
+  void checkFirstIndex(CueIssues issues) {
+    CueTrack firstTrack = getFirstTrack();
+    CueIndex firstIndex = firstTrack != null ? firstTrack.getFirstIndex() : null; // tracks consistency makes sure there's >= 1 index per track, just avoiding NPE
+    if(firstIndex != null && firstIndex.getFrameCount() != 0) {
+      issues.add(String.format("File %s doesn't have %s as its first track's first index", fileReference.file, TimeCode.ZERO_SECOND));
+    }
+  }
+
+  /**
+   * Checks the tracks it visits, timecodes chaining being checked within each file.
+   * Chaining issues are kept apart, as they come after the first index one.
+   */
+  static final class ConsistencyChecker implements CueVisitor {
+    final CueIssues issues = new CueIssues();
+    final CueIssues chainingIssues = new CueIssues();
+    private final boolean orderedTimeCodes;
+    private CueIndex latestIndex;
+
+    ConsistencyChecker(boolean orderedTimeCodes) {
+      this.orderedTimeCodes = orderedTimeCodes;
+    }
+
+    @Override
+    public CueVisitResult visitFile(CueFile file) {
+      latestIndex = null;
+      return CueVisitResult.CONTINUE;
+    }
+
+    @Override
+    public CueVisitResult visitTrack(CueTrack track) {
+      issues.addAll(track.getCheckedIssues());
+      if(orderedTimeCodes) {
         TimeCodeValidation timeCodeValidation = track.checkTimeCodesChaining(latestIndex);
-        issues.add(timeCodeValidation.issue);
+        chainingIssues.add(timeCodeValidation.issue);
         latestIndex = timeCodeValidation.latest;
       }
+      return CueVisitResult.SKIP_CHILDREN;
     }
-    return issues;
   }
 
+
   public String toSheetLine(CueWriteOptions options) {
     String file = options.isFullPaths() ? getFile() : getFileName();
     return String.format("%s \"%s\" %s", KEYWORD, file, getType().getValue());
@@ -319,6 +533,15 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
    * @return
    */
   static FileReference parse(@NonNull String fileAndFormat, CueSheetContext context) throws IOException {
+    FileReference fileReference = parse(fileAndFormat);
+    return fromParentDir(fileReference.getFile(), fileReference.getType(), context);
+  }
+
+  /**
+   * @param fileAndFormat "\"my file.wav\" WAVE" if the cue sheet contains "FILE \"my file.wav\" WAVE"
+   * @return the file name and type as written in the sheet, neither resolved nor probed
+   */
+  static FileReference parse(@NonNull String fileAndFormat) {
     String fileName;
     FileType fileType;
     int sep = fileAndFormat.lastIndexOf(' ');
@@ -330,23 +553,34 @@ public class CueFile implements CueEntity, CueIterable<CueTrack>, FileReferable
       fileName = unquote(fileAndFormat.trim());
       fileType = FileReference.getTypeByFileName(fileName);
     }
+    return new FileReference(fileName, fileType);
+  }
 
-    // parent may be null if we're loading the file from a stream or the network
-    // fileName may be a filename or a complete path
-    return fromParentDir(fileName, fileType, context);
+  /**
+   * parent may be null if we're loading the file from a stream or the network
+   * fileOrFileName may be a filename or a complete path
+   */
+  static FileReference fromParentDir(String fileOrFileName, FileType fileType, CueSheetContext context) throws IOException {
+    Path filePath = resolve(fileOrFileName, context);
+    if(filePath == null) { // let's set what we can
+      return new FileReference(fileOrFileName, fileType);
+    }
+    return new FileReference(filePath, fileType, context);
   }
 
-  private static FileReference fromParentDir(String fileOrFileName, FileType fileType, CueSheetContext context) throws IOException {
+  /**
+   * @return the file path against the sheet's dir, or null if the sheet has none
+   */
+  static Path resolve(String fileOrFileName, CueSheetContext context) {
     Path dir = context.getParent();
-    if(dir == null ) { // let's set what we can
-      return new FileReference(fileOrFileName, fileType);
+    if(dir == null) {
+      return null;
     }
 
     Path filePath = Paths.get(fileOrFileName);
     if(filePath.getNameCount() == 1) { // just a file name
       filePath = dir.resolve(fileOrFileName);
     }
-
-    return new FileReference(filePath, fileType, context);
+    return filePath;
   }
 }
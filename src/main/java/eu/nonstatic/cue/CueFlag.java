@@ -9,6 +9,9 @@
  */
 package eu.nonstatic.cue;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import lombok.Getter;
 
 public enum CueFlag {
@@ -20,6 +23,8 @@ public enum CueFlag {
   // "DATA" is a flag that's only relevant in data tracks and needn't be specified
   ;
 
+  static final List<String> FLAGS = Arrays.stream(values()).map(CueFlag::getFlag).collect(Collectors.toUnmodifiableList());
+
   @Getter
   private final String flag;
 
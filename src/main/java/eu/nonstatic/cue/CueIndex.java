@@ -17,9 +17,14 @@ import eu.nonstatic.timecode.TimeCodeRounding;
 import java.time.Duration;
 import java.util.Comparator;
 import java.util.Objects;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+/**
+ * The time is held as a plain count of CD frames (1/75s) since the start of the file, TimeCodes being built on request.
+ * Only a TimeCode read from hundredths of a second is kept as is, to tell it was scaled.
+ */
 @Getter
 @EqualsAndHashCode
 public class CueIndex implements CueEntity, Comparable<CueIndex> {
@@ -30,10 +35,18 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
   public static final int INDEX_MAX = 99;
   public static final Comparator<Integer> COMPARATOR = Comparator.nullsLast(Comparator.naturalOrder());
 
+  static final int FRAMES_PER_MINUTE = FRAMES_PER_SECOND * SECONDS_PER_MINUTE;
+
   public static final CueIndex PREGAP_ZERO = new CueIndex(INDEX_PRE_GAP, TimeCode.ZERO_SECOND);
 
   protected Integer number; // 1 is the track start, 0 is the pregap.
-  private TimeCode timeCode;
+  private int frameCount;
+  @Getter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private TimeCode scaledTimeCode; // null unless scaled from hundredths
+  @EqualsAndHashCode.Exclude
+  private boolean frozen;
+  @Getter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  CueTrack track; // the track holding this index, told about changes
 
   public CueIndex(int minutes, int seconds, int frames) {
     this(new TimeCode(minutes, seconds, frames));
@@ -59,10 +72,41 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
   }
 
   public CueIndex deepCopy(Integer number) {
-    return new CueIndex(number, timeCode);
+    CueIndex copy = ofFrames(number, frameCount);
+    copy.scaledTimeCode = scaledTimeCode;
+    return copy;
+  }
+
+  /**
+   * Skips the TimeCode altogether
+   */
+  static CueIndex ofFrames(Integer number, long frameCount) {
+    CueIndex index = new CueIndex(number, TimeCode.ZERO_SECOND);
+    index.setFrameCount(frameCount);
+    return index;
+  }
+
+  static TimeCode timeCodeOf(long frameCount) {
+    return new TimeCode((int) (frameCount / FRAMES_PER_MINUTE), (int) (frameCount / FRAMES_PER_SECOND % SECONDS_PER_MINUTE), (int) (frameCount % FRAMES_PER_SECOND));
+  }
+
+  static Duration durationOf(long frameCount) {
+    return Duration.ofMillis(frameCount * 1000 / FRAMES_PER_SECOND);
+  }
+
+  void freeze() {
+    frozen = true;
+  }
+
+  private void modified() {
+    CueTools.validateNotFrozen(frozen);
+    if(track != null) {
+      track.invalidate();
+    }
   }
 
   protected void setNumberOnce(int number) {
+    modified();
     CueTools.validateIndexRange("Index", number, CueIndex.INDEX_MAX);
     if (this.number != null && this.number != number) {
       throw new IllegalStateException("Index number already set to " + this.number);
@@ -77,31 +121,31 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
   }
 
   public int getMinutes() {
-    return timeCode.getMinutes();
+    return frameCount / FRAMES_PER_MINUTE;
   }
 
   public int getSeconds() {
-    return timeCode.getSeconds();
+    return frameCount / FRAMES_PER_SECOND % SECONDS_PER_MINUTE;
   }
 
   public int getFrames() {
-    return timeCode.getFrames();
+    return frameCount % FRAMES_PER_SECOND;
   }
 
   public void setMinutes(int minutes) {
-    timeCode = timeCode.withMinutes(minutes);
+    setTimeCode(getTimeCode().withMinutes(minutes));
   }
 
   public void setSeconds(int seconds) {
-    timeCode = timeCode.withSeconds(seconds);
+    setTimeCode(getTimeCode().withSeconds(seconds));
   }
 
   public void setFrames(int frames) {
-    timeCode = timeCode.withFrames(frames);
+    setTimeCode(getTimeCode().withFrames(frames));
   }
 
   public void setTime(int minutes, int seconds, int frames) {
-    timeCode = new TimeCode(minutes, seconds, frames);
+    setTimeCode(new TimeCode(minutes, seconds, frames));
   }
 
 
@@ -131,19 +175,37 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
   }
 
   public long getTimeMillis() {
-    return timeCode.toMillis();
+    return frameCount * 1000L / FRAMES_PER_SECOND;
   }
 
   public void setTimeMillis(long millis, TimeCodeRounding rounding) {
-    timeCode = new TimeCode(millis, rounding);
+    setTimeCode(new TimeCode(millis, rounding));
   }
 
   public String toTimeCode() {
-    return timeCode.toString();
+    return getTimeCode().toString();
+  }
+
+  /**
+   * @return a view of the frame count, or the TimeCode as read when it was scaled from hundredths
+   */
+  public TimeCode getTimeCode() {
+    return scaledTimeCode != null ? scaledTimeCode : timeCodeOf(frameCount);
   }
 
   public void setTimeCode(TimeCode timeCode) {
-    this.timeCode = Objects.requireNonNull(timeCode, "Index timecode must be provided");
+    Objects.requireNonNull(timeCode, "Index timecode must be provided");
+    setFrameCount(timeCode.toFrameCount());
+    this.scaledTimeCode = timeCode.isScaled100to75() ? timeCode : null;
+  }
+
+  private void setFrameCount(long frameCount) {
+    modified();
+    if (frameCount < 0 || frameCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Index frame count out of range: " + frameCount);
+    }
+    this.frameCount = (int) frameCount;
+    this.scaledTimeCode = null;
   }
 
   public void setTimeCode(String timeCode) {
@@ -151,7 +213,15 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
   }
 
   public Duration until(CueIndex other) {
-    return timeCode.until(other.timeCode);
+    return durationOf((long) other.frameCount - frameCount);
+  }
+
+  boolean isScaled100to75() {
+    return scaledTimeCode != null;
+  }
+
+  public CueVisitResult accept(CueVisitor visitor) {
+    return visitor.visitIndex(this) == CueVisitResult.TERMINATE ? CueVisitResult.TERMINATE : CueVisitResult.CONTINUE;
   }
 
   /**
@@ -164,7 +234,7 @@ public class CueIndex implements CueEntity, Comparable<CueIndex> {
 
   @Override
   public String toSheetLine(CueWriteOptions options) {
-    return String.format("%s %02d %s", KEYWORD, number, timeCode.toString());
+    return String.format("%s %02d %s", KEYWORD, number, toTimeCode());
   }
 
   @Override
@@ -0,0 +1,346 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Walks a directory tree and reads every cue file found on an executor.
+ * - a file failing to read doesn't stop the scan: its {@link CueScanResult} holds the exception instead,
+ *   and so does a directory that cannot be walked,
+ * - at most maxInFlight files are being read or waiting to be consumed at any time, so memory stays bounded whatever the tree size,
+ * - results come in walk order when ordered, else as soon as they're read.
+ * All files are read with the same reader and options, both being shareable between threads.
+ * With a {@link CueCatalog}, only the files that changed since they were recorded are read, the others are decoded from it.
+ */
+@Slf4j
+@Getter
+public final class CueLibraryScanner {
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 4 * Runtime.getRuntime().availableProcessors();
+
+  private final CueSheetReader reader;
+  private final CueOptions options;
+  private final Executor executor;
+  private final int maxInFlight;
+  private final boolean ordered;
+  private final int maxDepth;
+  private final CueCatalog catalog;
+
+
+  private CueLibraryScanner(CueSheetReader reader, CueOptions options, Executor executor, int maxInFlight, boolean ordered, int maxDepth, CueCatalog catalog) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+    }
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+    }
+    this.reader = reader;
+    this.options = options;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    this.ordered = ordered;
+    this.maxDepth = maxDepth;
+    this.catalog = catalog;
+  }
+
+  /**
+   * @return a scanner using a default CueSheetReader and options, on the common fork-join pool, ordered
+   */
+  public static CueLibraryScanner defaults() {
+    return builder().build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+
+  /**
+   * Results are consumed on the calling thread, so the consumer needn't be thread-safe.
+   * @throws IOException when the root itself cannot be walked (but not when a directory under it, or a cue file, cannot be read)
+   */
+  public void scan(@NonNull Path root, @NonNull Consumer<? super CueScanResult> consumer) throws IOException {
+    try (Stream<CueScanResult> results = stream(root)) {
+      results.forEach(consumer);
+    }
+  }
+
+  /**
+   * The returned stream is lazy and must be closed, like {@link Files#walk(Path, FileVisitOption...)}'s.
+   * Closing it before the end stops the walk and cancels the pending reads.
+   * @throws IOException when the root itself cannot be walked (but not when a directory under it, or a cue file, cannot be read)
+   */
+  public Stream<CueScanResult> stream(@NonNull Path root) throws IOException {
+    ScanIterator iterator = new ScanIterator(root);
+    int characteristics = Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+                        .onClose(iterator::close);
+  }
+
+  CueScanResult read(Path cueFile) {
+    try {
+      CueSheetReadout readout = (catalog != null)
+          ? catalog.readCueSheet(cueFile, reader, options)
+          : reader.readCueSheet(cueFile, options);
+      return new CueScanResult(cueFile, readout, null);
+    } catch (Exception e) {
+      log.debug("Could not read {}", cueFile, e);
+      return new CueScanResult(cueFile, null, e);
+    }
+  }
+
+
+  /**
+   * A cue file to read, a directory to walk, or a path the walk failed on
+   */
+  private static final class Walked {
+    private final Path path;
+    private final int depth;
+    private final boolean directory;
+    private final IOException error;
+
+    Walked(Path path, int depth, boolean directory, IOException error) {
+      this.path = path;
+      this.depth = depth;
+      this.directory = directory;
+      this.error = error;
+    }
+  }
+
+  /**
+   * Lists one directory (or the root alone), keeping its cue files and subdirectories in walk order.
+   * Failures are kept as well, but the root's.
+   */
+  private final class DirectoryVisitor extends SimpleFileVisitor<Path> {
+    private final int depth; // of the visited entries
+    private final boolean root;
+    private final List<Walked> entries = new ArrayList<>();
+
+    DirectoryVisitor(int depth, boolean root) {
+      this.depth = depth;
+      this.root = root;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+      if (attrs.isDirectory()) {
+        if (depth < maxDepth) {
+          entries.add(new Walked(file, depth, true, null));
+        }
+      } else if (CueSheetReader.isCueFile(file, attrs)) {
+        entries.add(new Walked(file, depth, false, null));
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+      if (root) {
+        throw e;
+      }
+      log.debug("Could not walk {}", file, e);
+      entries.add(new Walked(file, depth, false, e));
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+      if (e != null) { // the listing broke midway
+        log.debug("Could not walk {}", dir, e);
+        entries.add(new Walked(dir, depth - 1, false, e));
+      }
+      return FileVisitResult.CONTINUE;
+    }
+  }
+
+  /**
+   * Walks depth-first, one directory at a time and only as far as needed, in the same order as {@link Files#walk}.
+   * Keeps up to maxInFlight reads submitted ahead of the consumer.
+   */
+  private final class ScanIterator implements Iterator<CueScanResult>, Closeable {
+
+    private final Deque<Walked> walk = new ArrayDeque<>(); // met but not handed out yet, next first
+    private final Deque<CompletableFuture<CueScanResult>> pending = new ArrayDeque<>(); // submission order, to cancel on close
+    private final BlockingQueue<CueScanResult> completed = new LinkedBlockingQueue<>(); // completion order, unordered mode only
+    private int inFlight;
+    private boolean closed;
+
+    ScanIterator(Path root) throws IOException {
+      DirectoryVisitor visitor = new DirectoryVisitor(0, true);
+      Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), 0, visitor);
+      walk.addAll(visitor.entries);
+    }
+
+    private Walked nextWalked() {
+      while (!closed && !walk.isEmpty()) {
+        Walked walked = walk.pop();
+        if (!walked.directory) {
+          return walked;
+        }
+        DirectoryVisitor visitor = new DirectoryVisitor(walked.depth + 1, false);
+        try {
+          Files.walkFileTree(walked.path, EnumSet.noneOf(FileVisitOption.class), 1, visitor);
+        } catch (IOException e) { // not thrown by the visitor, still
+          visitor.entries.add(new Walked(walked.path, walked.depth, false, e));
+        }
+        for (int i = visitor.entries.size() - 1; i >= 0; i--) { // its entries come before its siblings
+          walk.push(visitor.entries.get(i));
+        }
+      }
+      return null;
+    }
+
+    private void submit() {
+      Walked walked;
+      while (inFlight < maxInFlight && (walked = nextWalked()) != null) {
+        Path cueFile = walked.path;
+        CompletableFuture<CueScanResult> future = (walked.error != null)
+            ? CompletableFuture.completedFuture(new CueScanResult(cueFile, null, walked.error))
+            : CompletableFuture.supplyAsync(() -> read(cueFile), executor);
+        if (!ordered) {
+          future.whenComplete((result, e) -> completed.add(result != null ? result : new CueScanResult(cueFile, null, new CompletionException(e))));
+        }
+        pending.add(future);
+        inFlight++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      submit();
+      return inFlight > 0;
+    }
+
+    @Override
+    public CueScanResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      inFlight--;
+      if (ordered) {
+        return pending.remove().join();
+      } else {
+        CueScanResult result = take();
+        pending.removeIf(CompletableFuture::isDone);
+        return result;
+      }
+    }
+
+    private CueScanResult take() {
+      try {
+        return completed.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for a cue file to be read", e);
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      pending.forEach(future -> future.cancel(false));
+      pending.clear();
+      walk.clear();
+    }
+  }
+
+
+  public static class Builder {
+    private CueSheetReader reader;
+    private CueOptions options;
+    private Executor executor;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private boolean ordered = true;
+    private int maxDepth = Integer.MAX_VALUE;
+    private CueCatalog catalog;
+
+
+    public Builder reader(CueSheetReader reader) {
+      this.reader = reader;
+      return this;
+    }
+
+    /**
+     * Options all files are read with
+     */
+    public Builder options(CueOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    /**
+     * Defaults to the common fork-join pool
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public Builder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    public Builder ordered(boolean ordered) {
+      this.ordered = ordered;
+      return this;
+    }
+
+    public Builder maxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Catalog to serve unchanged files from and to record the others to. Left open by the scanner.
+     */
+    public Builder catalog(CueCatalog catalog) {
+      this.catalog = catalog;
+      return this;
+    }
+
+    public CueLibraryScanner build() {
+      return new CueLibraryScanner(
+          reader != null ? reader : new CueSheetReader(),
+          options != null ? options : CueOptions.builder().build(),
+          executor != null ? executor : ForkJoinPool.commonPool(),
+          maxInFlight, ordered, maxDepth, catalog);
+    }
+  }
+}
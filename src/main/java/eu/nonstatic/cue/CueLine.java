@@ -9,62 +9,309 @@
  */
 package eu.nonstatic.cue;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Locale;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import lombok.Getter;
+import java.util.Objects;
 
-@Getter
-class CueLine {
+/**
+ * Tokenized view of a line over a char window (usually the buffer of a {@link CueLineReader}).
+ * Keyword, tail and tail words are kept as offsets: nothing is copied unless a String is explicitly asked for.
+ * Hence a CueLine handed out by a CueLineReader is only valid until its next readLine().
+ */
+class CueLine implements CharSequence {
 
-  private final int lineNumber;
-  private final String raw; // trimmed actually
-  private final String keyword;
-  private final String tail;
-  private final List<String> tailParts;
+  private static final String[] KEYWORDS = {
+      CueWords.FILE, CueWords.TRACK, CueWords.INDEX,
+      CueWords.TITLE, CueWords.PERFORMER, CueWords.CATALOG, CueWords.CDTEXTFILE, CueWords.SONGWRITER,
+      CueWords.ISRC, CueWords.PREGAP, CueWords.POSTGAP, CueWords.FLAGS, CueWords.REMARK
+  };
 
-  private static final Pattern SPACING_PATTERN = Pattern.compile("\\s+");
+  private char[] chars;
+  private int lineNumber;
+  private int start; // trimmed
+  private int end; // trimmed, exclusive
+  private int keywordEnd;
+  private String keyword; // a CueWords constant, else lazily upper-cased
+  private int tailStart; // -1 when there's no tail
+  private int[] words = new int[16]; // [start, end[ pairs of the tail words
+  private int wordCount;
+
+  CueLine() {
+  }
 
   CueLine(int lineNumber, String line) {
+    char[] lineChars = line.toCharArray();
+    set(lineNumber, lineChars, 0, lineChars.length);
+  }
+
+  /**
+   * Re-targets this instance to another line
+   * @param to exclusive
+   */
+  CueLine set(int lineNumber, char[] chars, int from, int to) {
+    this.chars = chars;
     this.lineNumber = lineNumber;
-    this.raw = line.trim();
 
-    int sep = raw.indexOf(' ');
+    while (from < to && chars[from] <= ' ') {
+      from++;
+    }
+    while (to > from && chars[to - 1] <= ' ') {
+      to--;
+    }
+    this.start = from;
+    this.end = to;
+
+    int sep = indexOf(' ', start, end);
     if (sep >= 0) {
-      this.keyword = this.raw.substring(0, sep).toUpperCase(Locale.ROOT);
-      this.tail = this.raw.substring(sep + 1).trim();
-      this.tailParts = SPACING_PATTERN.splitAsStream(this.tail).collect(Collectors.toList());
+      this.keywordEnd = sep;
+      int tailFrom = sep + 1;
+      while (chars[tailFrom] <= ' ') { // bounded since the line is trimmed
+        tailFrom++;
+      }
+      this.tailStart = tailFrom;
+      tokenizeTail();
     } else {
-      this.keyword = this.raw;
-      this.tail = null;
-      this.tailParts = List.of();
+      this.keywordEnd = end;
+      this.tailStart = -1;
+      this.wordCount = 0;
     }
+    this.keyword = knownKeyword();
+    return this;
+  }
+
+  private void tokenizeTail() {
+    wordCount = 0;
+    int i = tailStart;
+    while (i < end) {
+      while (i < end && isSpacing(chars[i])) {
+        i++;
+      }
+      if (i < end) {
+        int wordStart = i;
+        while (i < end && !isSpacing(chars[i])) {
+          i++;
+        }
+        addWord(wordStart, i);
+      }
+    }
+  }
+
+  private void addWord(int wordStart, int wordEnd) {
+    int idx = wordCount * 2;
+    if (idx == words.length) {
+      int[] newWords = new int[words.length * 2];
+      System.arraycopy(words, 0, newWords, 0, words.length);
+      words = newWords;
+    }
+    words[idx] = wordStart;
+    words[idx + 1] = wordEnd;
+    wordCount++;
+  }
+
+  /**
+   * Same as the regex \s class
+   */
+  private static boolean isSpacing(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private int indexOf(char c, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (chars[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private String knownKeyword() {
+    int length = keywordEnd - start;
+    for (String word : KEYWORDS) {
+      if (word.length() == length && regionMatchesUpperCase(start, word)) {
+        return word;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param upperCaseWord must be upper case already
+   */
+  private boolean regionMatchesUpperCase(int from, String upperCaseWord) {
+    for (int i = 0; i < upperCaseWord.length(); i++) {
+      char c = chars[from + i];
+      char expected = upperCaseWord.charAt(i);
+      if (c != expected && Character.toUpperCase(c) != expected) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean regionEquals(int from, int to, String str) {
+    if (str.length() != to - from) {
+      return false;
+    }
+    for (int i = 0; i < str.length(); i++) {
+      if (chars[from + i] != str.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String match(int from, int to, Collection<String> candidates) {
+    for (String candidate : candidates) {
+      if (regionEquals(from, to, candidate)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * @return the trimmed line
+   */
+  public String getRaw() {
+    return new String(chars, start, end - start);
+  }
+
+  /**
+   * @return the upper-cased keyword, which is the very {@link CueWords} constant when the keyword is a known one
+   */
+  public String getKeyword() {
+    if (keyword == null) {
+      keyword = new String(chars, start, keywordEnd - start).toUpperCase(Locale.ROOT);
+    }
+    return keyword;
+  }
+
+  public boolean hasTail() {
+    return tailStart >= 0;
+  }
+
+  public String getTail() {
+    return hasTail() ? new String(chars, tailStart, end - tailStart) : null;
+  }
+
+  /**
+   * Same as {@link CueTools#unquote(String)} on the tail, without the intermediate String
+   */
+  public String getUnquotedTail() {
+    return getUnquotedTail(0);
+  }
+
+  /**
+   * @param from index in the tail
+   * @return the unquoted (trimmed) tail, starting at from
+   */
+  public String getUnquotedTail(int from) {
+    if (!hasTail()) {
+      return null;
+    }
+
+    int s = tailStart + from;
+    while (s < end && chars[s] <= ' ') {
+      s++;
+    }
+    int e = end;
+    if (e - s >= 2) {
+      if (chars[s] == '"') {
+        s++;
+      }
+      if (chars[e - 1] == '"') {
+        e--;
+      }
+    }
+    return new String(chars, s, e - s);
+  }
+
+  /**
+   * @return index of c in the tail, or -1
+   */
+  public int tailIndexOf(char c) {
+    if (!hasTail()) {
+      return -1;
+    }
+    int idx = indexOf(c, tailStart, end);
+    return idx >= 0 ? idx - tailStart : -1;
+  }
+
+  /**
+   * @param from index in the tail
+   * @param to index in the tail, exclusive
+   * @return the candidate having the exact same content as this part of the tail, or null
+   */
+  public String matchTail(int from, int to, Collection<String> candidates) {
+    return hasTail() ? match(tailStart + from, tailStart + to, candidates) : null;
+  }
+
+  public int getTailWordCount() {
+    return wordCount;
   }
 
   public String getTailWord(int i) {
-    return this.tailParts.get(i);
+    Objects.checkIndex(i, wordCount);
+    int wordStart = words[i * 2];
+    return new String(chars, wordStart, words[i * 2 + 1] - wordStart);
+  }
+
+  /**
+   * @return the candidate equal to the tail word if any, so no new String is allocated, else a copy of the word
+   */
+  public String getTailWord(int i, Collection<String> candidates) {
+    Objects.checkIndex(i, wordCount);
+    String candidate = match(words[i * 2], words[i * 2 + 1], candidates);
+    return candidate != null ? candidate : getTailWord(i);
+  }
+
+  public int getTailWordAsInt(int i) {
+    Objects.checkIndex(i, wordCount);
+    return Integer.parseInt(this, words[i * 2] - start, words[i * 2 + 1] - start, 10);
   }
 
   public int words() {
-    return 1 + tailParts.size();
+    return 1 + wordCount;
   }
 
+  @Override
   public int length() {
-    return raw.length();
+    return end - start;
+  }
+
+  @Override
+  public char charAt(int index) {
+    Objects.checkIndex(index, length());
+    return chars[start + index];
+  }
+
+  @Override
+  public CharSequence subSequence(int from, int to) {
+    Objects.checkFromToIndex(from, to, length());
+    return new String(chars, start + from, to - from);
   }
 
   public boolean isEmpty() {
-    return raw.isEmpty();
+    return start == end;
   }
 
   private boolean isComment() {
-    return raw.startsWith("#")
-        || raw.startsWith("//")
-        || raw.startsWith(";");
+    char first = chars[start];
+    return first == '#'
+        || first == ';'
+        || (first == '/' && length() >= 2 && chars[start + 1] == '/');
   }
 
   public boolean isSkippable() {
     return isEmpty() || isComment();
   }
+
+  @Override
+  public String toString() {
+    return getRaw();
+  }
 }
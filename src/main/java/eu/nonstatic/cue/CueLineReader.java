@@ -13,55 +13,198 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.io.Reader;
+import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
+/**
+ * Reads lines into a reusable char window, instead of allocating a String per line.
+ * Line terminators are the same as {@link java.io.BufferedReader}'s: '\n', '\r' or "\r\n".
+ */
 public class CueLineReader implements Closeable {
 
-  private final LineNumberReader reader;
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final CueLine line = new CueLine(); // reused, see readLine()
+
+  private char[] buffer;
+  private int position; // start of the next line
+  private int limit; // end of the chars read so far
+  private boolean eof;
+  private boolean skipLF; // previous line ended with '\r', so a leading '\n' belongs to it
+  private int lineNumber;
+
+  private int markPosition = -1;
+  private int markLineNumber;
+  private boolean markSkipLF;
 
   public CueLineReader(InputStream is, Charset charset) {
     this(new InputStreamReader(is, charset));
   }
 
   public CueLineReader(Reader reader) {
-    this.reader = new LineNumberReader(reader);
+    this(reader, DEFAULT_BUFFER_SIZE);
+  }
+
+  CueLineReader(Reader reader, int bufferSize) {
+    this.reader = reader;
+    this.buffer = new char[bufferSize];
+  }
+
+  /**
+   * Lines are read straight from the given chars, which are NOT copied when array-backed.
+   */
+  public CueLineReader(CharBuffer chars) {
+    this.reader = null;
+    if (chars.hasArray()) {
+      this.buffer = chars.array();
+      this.position = chars.arrayOffset() + chars.position();
+      this.limit = chars.arrayOffset() + chars.limit();
+    } else {
+      this.buffer = new char[chars.remaining()];
+      chars.duplicate().get(buffer);
+      this.limit = buffer.length;
+    }
+    this.eof = true;
   }
 
   public int getLineNumber() {
-    return reader.getLineNumber();
+    return lineNumber;
   }
 
+  /**
+   * @return the next line, or null at the end of the stream.
+   * The returned instance is reused: it is only valid until the next call.
+   */
   public CueLine readLine() throws IOException, BadCharsetException {
     try {
-      int lineNumber = reader.getLineNumber();
-      String line = reader.readLine();
-      return (line != null) ? new CueLine(lineNumber, line) : null;
+      if (skipLF) {
+        if (position == limit && !eof) {
+          fill();
+        }
+        if (position < limit && buffer[position] == '\n') {
+          position++;
+        }
+        skipLF = false;
+      }
+
+      int scan = position;
+      for (;;) {
+        while (scan < limit) {
+          char c = buffer[scan];
+          if (c == '\n' || c == '\r') {
+            line.set(lineNumber++, buffer, position, scan);
+            position = scan + 1;
+            skipLF = (c == '\r');
+            return line;
+          }
+          scan++;
+        }
+
+        if (eof) {
+          if (scan == position) {
+            return null;
+          }
+          line.set(lineNumber++, buffer, position, scan);
+          position = scan;
+          return line;
+        }
+        scan -= fill();
+      }
     } catch(CharacterCodingException e) {
       throw new BadCharsetException(e);
     }
   }
 
+  /**
+   * Discards what's before the current line (or the mark), grows the buffer if it is full, then reads more chars.
+   * @return the number of chars the buffer content was shifted by
+   */
+  private int fill() throws IOException {
+    int keep = (markPosition >= 0) ? Math.min(markPosition, position) : position;
+    if (keep > 0) {
+      System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+      limit -= keep;
+      position -= keep;
+      if (markPosition >= 0) {
+        markPosition -= keep;
+      }
+    }
+
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+
+    int read = reader.read(buffer, limit, buffer.length - limit);
+    if (read < 0) {
+      eof = true;
+    } else {
+      limit += read;
+    }
+    return keep;
+  }
+
   public int read() throws IOException {
-    return reader.read();
+    for (;;) {
+      if (position == limit) {
+        if (eof) {
+          return -1;
+        }
+        fill();
+        continue;
+      }
+
+      char c = buffer[position++];
+      if (skipLF) {
+        skipLF = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == '\r') {
+        skipLF = true;
+        lineNumber++;
+        return '\n';
+      } else if (c == '\n') {
+        lineNumber++;
+      }
+      return c;
+    }
   }
 
   public long skip(long n) throws IOException {
-    return reader.skip(n);
+    long skipped = 0;
+    while (skipped < n && read() >= 0) {
+      skipped++;
+    }
+    return skipped;
   }
 
+  /**
+   * Unlike a BufferedReader's, this mark has no read-ahead limit: the buffer grows as needed until reset()
+   */
   public void mark() throws IOException {
-    reader.mark(512);
+    markPosition = position;
+    markLineNumber = lineNumber;
+    markSkipLF = skipLF;
   }
 
   public void reset() throws IOException {
-    reader.reset();
+    if (markPosition < 0) {
+      throw new IOException("Stream not marked");
+    }
+    position = markPosition;
+    lineNumber = markLineNumber;
+    skipLF = markSkipLF;
   }
 
   @Override
   public void close() throws IOException {
-    reader.close();
+    if (reader != null) {
+      reader.close();
+    }
   }
 }
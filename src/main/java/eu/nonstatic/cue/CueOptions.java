@@ -12,36 +12,40 @@ package eu.nonstatic.cue;
 import eu.nonstatic.timecode.TimeCodeRounding;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Immutable, so one instance may be shared by concurrent reads.
+ * The charset a given sheet ends up decoded with is on its {@link CueSheetContext}, not here.
+ */
 @Slf4j
-@Getter @Builder
+@Getter @Builder(toBuilder = true)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class CueOptions {
   public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
   public static final TimeCodeRounding DEFAULT_ROUNDING = TimeCodeRounding.DOWN;
 
-  @Setter(AccessLevel.PACKAGE)
-  private Charset charset;
+  private final Charset charset; // null means detection
   @NonNull @Builder.Default
-  private TimeCodeRounding rounding = DEFAULT_ROUNDING;
+  private final TimeCodeRounding rounding = DEFAULT_ROUNDING;
 
-  private boolean timeCodeLeniency;
-  private boolean isrcLeniency;
-  private boolean fileLeniency;
+  private final boolean timeCodeLeniency;
+  private final boolean isrcLeniency;
+  private final boolean fileLeniency;
+  private final boolean lazySizeAndDuration; // audio/data files are probed on first need instead of while reading the sheet
+  private final Executor probeExecutor; // if set (and not lazy), the files of a sheet are probed concurrently on it
 
   public CueOptions(Charset charset) {
     this(charset, DEFAULT_ROUNDING);
   }
 
   public CueOptions(Charset charset, TimeCodeRounding rounding) {
-    this.charset = charset;
-    this.rounding = rounding;
+    this(charset, rounding, false, false, false, false, null);
   }
 }
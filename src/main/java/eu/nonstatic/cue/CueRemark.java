@@ -68,7 +68,7 @@ public class CueRemark implements CueEntity {
     return value != null && value.split("\\s+").length > 1;
   }
 
-  private boolean requiresQuotes() {
+  boolean requiresQuotes() {
     return isComment() || isSeveralWords() || value.isEmpty();
   }
 
@@ -0,0 +1,55 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+/**
+ * A named check run by a {@link CueValidator}, either once per disc or once per file.
+ * Rules add their issues to the given CueIssues rather than throwing, like the consistency checks.
+ * File rules may be run in parallel on distinct files, so they must only touch the file they're given.
+ */
+public interface CueRule {
+
+  /**
+   * Cost of rules only looking at the sheet
+   */
+  int COST_SHEET = 0;
+
+  /**
+   * Cost of rules needing the files' sizes or durations, hence probed audio
+   */
+  int COST_PROBING = 100;
+
+  enum Scope {
+    DISC, FILE
+  }
+
+  String getName();
+
+  Scope getScope();
+
+  /**
+   * Cheaper rules are run first, rules of the same cost keeping their order
+   */
+  default int getCost() {
+    return COST_SHEET;
+  }
+
+  /**
+   * Called for DISC rules
+   */
+  default void checkDisc(CueDisc disc, CueWriteOptions options, CueIssues issues) {
+  }
+
+  /**
+   * Called for FILE rules, for each file of the disc in order
+   */
+  default void checkFile(CueFile file, CueWriteOptions options, CueIssues issues) {
+  }
+}
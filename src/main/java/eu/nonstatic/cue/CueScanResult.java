@@ -0,0 +1,31 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.nio.file.Path;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of reading one cue file during a {@link CueLibraryScanner} scan: either a readout, or the exception it failed with.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class CueScanResult {
+  private final Path path;
+  private final CueSheetReadout readout;
+  private final Exception error;
+
+
+  public boolean isError() {
+    return error != null;
+  }
+}
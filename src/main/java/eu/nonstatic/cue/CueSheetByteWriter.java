@@ -0,0 +1,424 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Set;
+import lombok.NonNull;
+
+/**
+ * Writes the same bytes as {@link CueSheetWriter}, but encodes each line piece by piece straight into a reusable buffer,
+ * without building intermediate strings, writers or formatters.
+ * - keywords, indentations and line separators are byte constants, as are the ASCII chars when the charset is a superset of ASCII,
+ * - anything else goes through one CharsetEncoder per sheet, replacing what cannot be encoded like an OutputStreamWriter would.
+ * Meant to be reused for many sheets but not thread-safe: have one per thread.
+ */
+public final class CueSheetByteWriter {
+
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+  private static final int MIN_BUFFER_SIZE = 64; // the longest constant fits
+
+  private static final int INDENTATION_ROOT = 0;
+  private static final int INDENTATION_FILE = INDENTATION_ROOT;
+  private static final int INDENTATION_TRACK = 2;
+  private static final int INDENTATION_INDEX = 4;
+  private static final int INDENTATION_TRACK_PROPS = INDENTATION_INDEX;
+
+  private static final byte[] SPACES = ascii("    ");
+  private static final byte[] NEW_LINE = ascii(System.lineSeparator()); // like PrintWriter.println()
+
+  private static final byte[] FILE = word(CueFile.KEYWORD);
+  private static final byte[] TRACK = word(CueTrack.KEYWORD);
+  private static final byte[] INDEX = word(CueIndex.KEYWORD);
+  private static final byte[] TITLE = word(CueWords.TITLE);
+  private static final byte[] PERFORMER = word(CueWords.PERFORMER);
+  private static final byte[] CATALOG = word(CueWords.CATALOG);
+  private static final byte[] CDTEXTFILE = word(CueWords.CDTEXTFILE);
+  private static final byte[] SONGWRITER = word(CueWords.SONGWRITER);
+  private static final byte[] ISRC = word(CueWords.ISRC);
+  private static final byte[] PREGAP = word(CueWords.PREGAP);
+  private static final byte[] POSTGAP = word(CueWords.POSTGAP);
+  private static final byte[] FLAGS = word(CueWords.FLAGS);
+  private static final byte[] REMARK = ascii(CueRemark.KEYWORD); // may have no tag nor value
+
+  private static final OpenOption[] OPTIONS_STANDARD = { StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE };
+  private static final OpenOption[] OPTIONS_OVERWRITE = { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE };
+
+  private final ByteBuffer buffer;
+  private final CharBuffer chars; // pending chars for the encoder
+  private Charset charset;
+  private CharsetEncoder encoder;
+  private boolean asciiCompatible;
+  private WritableByteChannel channel; // either one or the other while writing
+  private OutputStream os;
+
+
+  public CueSheetByteWriter() {
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  public CueSheetByteWriter(int bufferSize) {
+    if (bufferSize < MIN_BUFFER_SIZE) {
+      throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE + ": " + bufferSize);
+    }
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.chars = CharBuffer.allocate(bufferSize / 4);
+  }
+
+  private static byte[] ascii(String str) {
+    return str.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] word(String keyword) {
+    return ascii(keyword + ' ');
+  }
+
+  /**
+   * @return true if ASCII chars are encoded as themselves, whatever comes before or after
+   */
+  private static boolean isAsciiCompatible(Charset charset) {
+    String name = charset.name();
+    return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+        || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+  }
+
+
+  /**
+   * @return true if the file was written, false if options say to write if changed and it already had this content
+   */
+  public boolean write(@NonNull CueDisc cueDisc, @NonNull Path cueFile, CueWriteOptions options) throws IOException {
+    if(options.isWriteIfChanged()) {
+      var rendered = new ByteArrayOutputStream();
+      write(cueDisc, rendered, options);
+      return CueSheetWriter.writeIfChanged(cueFile, rendered.toByteArray(), options.isOverwrite());
+    }
+    try (FileChannel fileChannel = FileChannel.open(cueFile, options.isOverwrite() ? OPTIONS_OVERWRITE : OPTIONS_STANDARD)) {
+      write(cueDisc, fileChannel, options);
+    }
+    return true;
+  }
+
+  /**
+   * The stream is flushed, not closed
+   */
+  public void write(@NonNull CueDisc cueDisc, @NonNull OutputStream os, CueWriteOptions options) throws IOException {
+    this.os = os;
+    try {
+      writeDisc(cueDisc, options);
+      os.flush();
+    } finally {
+      this.os = null;
+    }
+  }
+
+  /**
+   * The channel is left open
+   */
+  public void write(@NonNull CueDisc cueDisc, @NonNull WritableByteChannel channel, CueWriteOptions options) throws IOException {
+    this.channel = channel;
+    try {
+      writeDisc(cueDisc, options);
+    } finally {
+      this.channel = null;
+    }
+  }
+
+  private void writeDisc(CueDisc cueDisc, CueWriteOptions options) throws IOException {
+    CueIssues issues = cueDisc.checkConsistency(options);
+    if(!issues.isEmpty()) {
+      throw issues.toException();
+    }
+
+    start(Objects.requireNonNullElse(cueDisc.getCharset(), CueDisc.DEFAULT_CHARSET));
+    try {
+      for (CueRemark remark : cueDisc.getRemarks()) {
+        writeRemark(INDENTATION_ROOT, remark);
+      }
+      writeQuoted(INDENTATION_ROOT, PERFORMER, cueDisc.getPerformer());
+      writeQuoted(INDENTATION_ROOT, TITLE, cueDisc.getTitle());
+      writeQuoted(INDENTATION_ROOT, SONGWRITER, cueDisc.getSongwriter());
+      writeQuoted(INDENTATION_ROOT, CATALOG, cueDisc.getCatalog());
+      writeQuoted(INDENTATION_ROOT, CDTEXTFILE, cueDisc.getCdTextFile());
+      for (CueOther other : cueDisc.getOthers()) {
+        writeOther(INDENTATION_ROOT, other);
+      }
+
+      for (CueFile file : cueDisc.getFiles()) {
+        writeFile(file, options);
+      }
+      end();
+    } finally {
+      buffer.clear();
+      chars.clear();
+    }
+  }
+
+  private void writeFile(CueFile file, CueWriteOptions options) throws IOException {
+    if(file.getTrackCount() > 0) {
+      indent(INDENTATION_FILE);
+      put(FILE);
+      put('"');
+      put(options.isFullPaths() ? file.getFile() : file.getFileName());
+      put('"');
+      put(' ');
+      put(file.getType().getValue());
+      newLine();
+
+      for (CueTrack track : file.getTracks()) {
+        writeTrack(track);
+      }
+    }
+  }
+
+  private void writeTrack(CueTrack track) throws IOException {
+    if(track.getIndexCount() > 0) {
+      indent(INDENTATION_TRACK);
+      put(TRACK);
+      putNumber(track.getNumber());
+      put(' ');
+      put(track.getType());
+      newLine();
+
+      for (CueRemark remark : track.getRemarks()) {
+        writeRemark(INDENTATION_TRACK_PROPS, remark);
+      }
+      writeQuoted(INDENTATION_TRACK_PROPS, TITLE, track.getTitle());
+      writeQuoted(INDENTATION_TRACK_PROPS, PERFORMER, track.getPerformer());
+      writeQuoted(INDENTATION_TRACK_PROPS, SONGWRITER, track.getSongwriter());
+      writeQuoted(INDENTATION_TRACK_PROPS, ISRC, track.getIsrc());
+      writeFlags(track);
+      for (CueOther other : track.getOthers()) {
+        writeOther(INDENTATION_TRACK_PROPS, other);
+      }
+      writeRaw(INDENTATION_TRACK_PROPS, PREGAP, track.getPreGap());
+      writeRaw(INDENTATION_TRACK_PROPS, POSTGAP, track.getPostGap());
+
+      for (CueIndex index : track.getIndexes()) {
+        indent(INDENTATION_INDEX);
+        put(INDEX);
+        putNumber(index.getNumber());
+        put(' ');
+        put(index.toTimeCode());
+        newLine();
+      }
+    }
+  }
+
+  private void writeFlags(CueTrack track) throws IOException {
+    Set<CueFlag> flags = track.getFlags();
+    if (!flags.isEmpty()) {
+      indent(INDENTATION_TRACK_PROPS);
+      put(FLAGS);
+      boolean first = true;
+      for (CueFlag flag : flags) {
+        if(flag != null) {
+          if(!first) {
+            put(' ');
+          }
+          put(flag.getFlag());
+          first = false;
+        }
+      }
+      newLine();
+    }
+  }
+
+  private void writeRemark(int indent, CueRemark remark) throws IOException {
+    indent(indent);
+    put(REMARK);
+    if (remark.getTag() != null) {
+      put(' ');
+      put(remark.getTag());
+    }
+    String value = remark.getValue();
+    if (value != null) {
+      put(' ');
+      if(remark.requiresQuotes()) {
+        putQuoted(value);
+      } else {
+        put(value);
+      }
+    }
+    newLine();
+  }
+
+  private void writeOther(int indent, CueOther other) throws IOException {
+    indent(indent);
+    put(other.getKeyword());
+    if (other.getValue() != null) {
+      put(' ');
+      putQuoted(other.getValue());
+    }
+    newLine();
+  }
+
+  private void writeQuoted(int indent, byte[] keyword, String value) throws IOException {
+    if (value != null) {
+      indent(indent);
+      put(keyword);
+      putQuoted(value);
+      newLine();
+    }
+  }
+
+  private void writeRaw(int indent, byte[] keyword, Object obj) throws IOException {
+    if (obj != null) {
+      indent(indent);
+      put(keyword);
+      put(obj.toString());
+      newLine();
+    }
+  }
+
+
+  private void start(Charset charset) {
+    if(!charset.equals(this.charset)) {
+      this.charset = charset;
+      this.encoder = charset.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.asciiCompatible = isAsciiCompatible(charset);
+    } else {
+      encoder.reset();
+    }
+  }
+
+  private void end() throws IOException {
+    encodeChars(true);
+    drain();
+  }
+
+  private void indent(int indent) throws IOException {
+    if(indent > 0) {
+      put(SPACES, indent);
+    }
+  }
+
+  private void newLine() throws IOException {
+    put(NEW_LINE);
+  }
+
+  private void put(byte[] ascii) throws IOException {
+    put(ascii, ascii.length);
+  }
+
+  private void put(byte[] ascii, int length) throws IOException {
+    if(asciiCompatible && encodeChars(false)) {
+      if(buffer.remaining() < length) {
+        drain();
+      }
+      buffer.put(ascii, 0, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        putChar((char) ascii[i]);
+      }
+    }
+  }
+
+  /**
+   * Same as String.format("%02d", number)
+   */
+  private void putNumber(Integer number) throws IOException {
+    if(number != null && number >= 0 && number < 100) {
+      put((char) ('0' + number / 10));
+      put((char) ('0' + number % 10));
+    } else {
+      put(String.valueOf(number));
+    }
+  }
+
+  private void putQuoted(String str) throws IOException {
+    put('"');
+    put(str);
+    put('"');
+  }
+
+  private void put(String str) throws IOException {
+    for (int i = 0; i < str.length(); i++) {
+      put(str.charAt(i));
+    }
+  }
+
+  private void put(char c) throws IOException {
+    if(asciiCompatible && c < 0x80 && encodeChars(false)) {
+      if(!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) c);
+    } else {
+      putChar(c);
+    }
+  }
+
+  private void putChar(char c) throws IOException {
+    if(!chars.hasRemaining()) {
+      encodeChars(false);
+    }
+    chars.put(c);
+  }
+
+  /**
+   * Encodes the pending chars, but a trailing high surrogate unless it's the end
+   * @return true if no char is left pending, so that ASCII may go straight to the buffer without overtaking one
+   */
+  private boolean encodeChars(boolean endOfInput) throws IOException {
+    if(chars.position() == 0 && !endOfInput) {
+      return true;
+    }
+    chars.flip();
+    CoderResult result;
+    while ((result = encoder.encode(chars, buffer, endOfInput)).isOverflow()) {
+      drain();
+    }
+    checkResult(result);
+    if(endOfInput) {
+      while ((result = encoder.flush(buffer)).isOverflow()) {
+        drain();
+      }
+      checkResult(result);
+    }
+    chars.compact();
+    return chars.position() == 0;
+  }
+
+  private static void checkResult(CoderResult result) throws CharacterCodingException {
+    if(result.isError()) {
+      result.throwException(); // not with REPLACE, still
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    if(os != null) {
+      os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    buffer.clear();
+  }
+}
@@ -10,10 +10,12 @@
 package eu.nonstatic.cue;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 
@@ -25,7 +27,13 @@ public class CueSheetContext {
   private final String name;
 
   private final CueOptions options;
-  private final List<CueSheetIssue> issues = new ArrayList<>();
+  private final List<CueSheetIssue> issues = Collections.synchronizedList(new ArrayList<>()); // lazy probes may add issues from any thread
+  @Getter(AccessLevel.NONE)
+  private FileResolver fileResolver;
+
+  @Getter(AccessLevel.NONE)
+  private Charset charset; // the one the sheet was decoded with, once known
+  private CharsetOrigin charsetOrigin;
 
   public CueSheetContext(String name, CueOptions options) {
     this(name, null, name, options);
@@ -46,12 +54,59 @@ public class CueSheetContext {
     this.options = options;
   }
 
+  /**
+   * @return the resolver of the sheet's referenced files, shared with the detached contexts
+   */
+  synchronized FileResolver getFileResolver() {
+    if(fileResolver == null) {
+      fileResolver = new FileResolver();
+    }
+    return fileResolver;
+  }
+
+  /**
+   * @return a context for the same sheet, with its own issues (eg: for another thread to work on)
+   */
+  CueSheetContext detached() {
+    CueSheetContext detached = new CueSheetContext(path, parent, name, options);
+    detached.fileResolver = getFileResolver();
+    return detached;
+  }
+
+  /**
+   * @return a context for the same sheet, with a copy of this one's issues and charset
+   */
+  CueSheetContext copy() {
+    CueSheetContext copy = detached();
+    copy.issues.addAll(issues);
+    copy.charset = charset;
+    copy.charsetOrigin = charsetOrigin;
+    return copy;
+  }
+
+  /**
+   * @return the charset the sheet was decoded with, else the options' one (eg: when read from a Reader)
+   */
+  public Charset getCharset() {
+    return (charset != null) ? charset : options.getCharset();
+  }
+
+  void setCharset(Charset charset, CharsetOrigin charsetOrigin) {
+    this.charset = charset;
+    this.charsetOrigin = charsetOrigin;
+  }
+
   public boolean isIssues() {
     return !issues.isEmpty();
   }
 
+  /**
+   * @return the issues so far, a snapshot since lazy probes may still add some
+   */
   public List<CueSheetIssue> getIssues() {
-    return Collections.unmodifiableList(issues);
+    synchronized (issues) {
+      return List.copyOf(issues);
+    }
   }
 
   public void addIssue(String format, Object... args) {
@@ -0,0 +1,75 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Push (SAX-like) events of a cue sheet, in sheet order, as {@link CueSheetReader} reads it.
+ * Nothing is built but what the handler decides to build, so one may pick a few fields, or stream a whole library, in constant memory.
+ * Remarks and others belong to the latest track since the latest {@link #onFile(String, FileType)}, if any, else to the disc.
+ * All methods do nothing by default.
+ */
+public interface CueSheetHandler {
+
+  /**
+   * @param context its charset, see {@link CueSheetContext#getCharset()}, is the one the sheet is read with
+   */
+  default void onStart(CueSheetContext context) throws IOException {}
+
+  /**
+   * @param keyword one of TITLE, PERFORMER, SONGWRITER, CATALOG, CDTEXTFILE (the {@link CueWords} constants)
+   */
+  default void onDiscField(String keyword, String value) throws IOException {}
+
+  /**
+   * @param file as written in the sheet, neither resolved against the sheet's directory nor probed
+   */
+  default void onFile(String file, FileType type) throws IOException {}
+
+  default void onTrack(int number, String type) throws IOException {}
+
+  /**
+   * @param keyword one of TITLE, PERFORMER, SONGWRITER, ISRC (the {@link CueWords} constants)
+   */
+  default void onTrackField(String keyword, String value) throws IOException {}
+
+  default void onIndex(int number, TimeCode timeCode) throws IOException {}
+
+  default void onPreGap(TimeCode preGap) throws IOException {}
+
+  default void onPostGap(TimeCode postGap) throws IOException {}
+
+  default void onFlags(List<CueFlag> flags) throws IOException {}
+
+  /**
+   * @param tag one of the {@link CueRemark} tags, else null
+   */
+  default void onRemark(String tag, String value) throws IOException {}
+
+  /**
+   * Unknown line
+   */
+  default void onOther(String keyword, String value) throws IOException {}
+
+  /**
+   * Called after the last track of a file (if any), or when a line ends a file
+   */
+  default void onFileEnd() throws IOException {}
+
+  /**
+   * The issue has already been added to the context
+   */
+  default void onIssue(CueSheetIssue issue) throws IOException {}
+
+  default void onEnd() throws IOException {}
+}
@@ -9,23 +9,13 @@
  */
 package eu.nonstatic.cue;
 
-import static eu.nonstatic.cue.CueTools.unquote;
-import static eu.nonstatic.cue.CueWords.CATALOG;
-import static eu.nonstatic.cue.CueWords.CDTEXTFILE;
 import static eu.nonstatic.cue.CueWords.FLAGS;
-import static eu.nonstatic.cue.CueWords.ISRC;
-import static eu.nonstatic.cue.CueWords.PERFORMER;
 import static eu.nonstatic.cue.CueWords.POSTGAP;
 import static eu.nonstatic.cue.CueWords.PREGAP;
-import static eu.nonstatic.cue.CueWords.SONGWRITER;
-import static eu.nonstatic.cue.CueWords.TITLE;
-import static java.util.stream.Collectors.toList;
 
 import com.ibm.icu.text.CharsetDetector;
 import com.ibm.icu.text.CharsetMatch;
-import eu.nonstatic.timecode.TimeCode;
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
@@ -33,15 +23,34 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Holds no per-read state: everything a read decides (charset, issues...) goes to its {@link CueSheetContext}.
+ * So one instance, along with one {@link CueOptions}, may serve concurrent reads.
+ * A CueSheetContext however belongs to one read only.
+ */
 @Slf4j
 public final class CueSheetReader {
 
@@ -49,8 +58,8 @@ public final class CueSheetReader {
   public static final int DEFAULT_CONFIDENCE = 30;
   public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
-  private static final String MESSAGE_NO_KEYWORD = "%s#%s: No keyword on line: %s";
   static final String MESSAGE_NOT_CUE = "Not a cue file: ";
+  static final int MAX_IN_MEMORY_SIZE = 1 << 20; // cue sheets are way smaller than that
 
 
   private final int confidence;
@@ -71,7 +80,19 @@ public final class CueSheetReader {
 
 
   public static boolean isCueFile(@NonNull Path file) {
-    return Files.isRegularFile(file) && CueTools.isExt(file.getFileName().toString(), CUE_EXTENSION);
+    return Files.isRegularFile(file) && isCueFileName(file);
+  }
+
+  /**
+   * Same as {@link #isCueFile(Path)}, using attributes already at hand (eg: when walking a tree) instead of hitting the file system again.
+   * Like it, follows symbolic links, which alone need another look at the file system.
+   */
+  public static boolean isCueFile(@NonNull Path file, @NonNull BasicFileAttributes attrs) {
+    return isCueFileName(file) && (attrs.isRegularFile() || attrs.isSymbolicLink() && Files.isRegularFile(file));
+  }
+
+  private static boolean isCueFileName(Path file) {
+    return CueTools.isExt(file.getFileName().toString(), CUE_EXTENSION);
   }
 
   public CueSheetReadout readCueSheet(File cueFile) throws IOException, BadCharsetException {
@@ -95,22 +116,151 @@ public final class CueSheetReader {
   }
 
   public CueSheetReadout readCueSheet(Path cueFile, CueOptions options) throws IOException, BadCharsetException {
+    return readCueSheet(cueFile, options, (MessageDigest) null);
+  }
+
+  /**
+   * @param digest if not null, fed with the bytes of the sheet as they're read, so that they needn't be read again to be hashed
+   */
+  CueSheetReadout readCueSheet(Path cueFile, CueOptions options, MessageDigest digest) throws IOException, BadCharsetException {
+    CueSheetContext context = new CueSheetContext(cueFile, options);
+    CueDiscBuilder builder = new CueDiscBuilder(context);
+    try (CueLineReader lineReader = openLineReader(cueFile, context, digest)) {
+      readCueSheet(lineReader, context, builder);
+    }
+    return new CueSheetReadout(builder.getDisc(), context);
+  }
+
+  /**
+   * Event based reading: no CueDisc is built, unless the handler does so.
+   * @return the context the handler's events were read with
+   */
+  public CueSheetContext readCueSheet(Path cueFile, CueOptions options, CueSheetHandler handler) throws IOException, BadCharsetException {
+    CueSheetContext context = new CueSheetContext(cueFile, options);
+    readCueSheet(cueFile, context, handler);
+    return context;
+  }
+
+  private void readCueSheet(Path cueFile, CueSheetContext context, CueSheetHandler handler) throws IOException, BadCharsetException {
+    try (CueLineReader lineReader = openLineReader(cueFile, context, null)) {
+      readCueSheet(lineReader, context, handler);
+    }
+  }
+
+  /**
+   * Pull based reading, see {@link CueTokenReader}. The returned reader must be closed.
+   */
+  public CueTokenReader openTokenReader(Path cueFile, CueOptions options) throws IOException, BadCharsetException {
+    CueSheetContext context = new CueSheetContext(cueFile, options);
+    return new CueTokenReader(openLineReader(cueFile, context, null), context);
+  }
+
+  private CueLineReader openLineReader(Path cueFile, CueSheetContext context, MessageDigest digest) throws IOException, BadCharsetException {
     if (!isCueFile(cueFile)) {
       throw new IllegalArgumentException(MESSAGE_NOT_CUE + cueFile);
     }
 
-    CueSheetContext context = new CueSheetContext(cueFile, options);
+    FileChannel channel = FileChannel.open(cueFile, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size <= MAX_IN_MEMORY_SIZE) {
+        try (channel) {
+          ByteBuffer bytes = readFully(channel, (int) size);
+          if (digest != null) {
+            digest.update(bytes.duplicate());
+          }
+          return decode(bytes, context);
+        }
+      } else { // unlikely for a cue sheet
+        InputStream cis = Channels.newInputStream(channel);
+        InputStream is = new BufferedInputStream(digest != null ? new DigestInputStream(cis, digest) : cis); // digested once all read
+        Charset charset = handleBomAndCharset(is, context);
+        CharsetDecoder cd = charset.newDecoder();
+        // Not passing the charset because it's not as charset sensitive as the decoder
+        // and would allow to read eg: iso-8859-1 files using an utf8 charset.
+        // No BufferedReader either, CueLineReader does its own buffering.
+        return new CueLineReader(new InputStreamReader(is, cd));
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
 
-    Charset charset;
-    try(InputStream is = new BufferedInputStream(Files.newInputStream(cueFile))) {
-      charset = handleBomAndCharset(is, context);
-      CharsetDecoder cd = charset.newDecoder();
-      // Not passing the charset because it's not as charset sensitive as the decoder
-      // and would allow to read eg: iso-8859-1 files using an utf8 charset.
-      BufferedReader reader = new BufferedReader(new InputStreamReader(is, cd));
-      CueDisc disc = readCueSheet(reader, context);
-      return new CueSheetReadout(disc, context);
+  /**
+   * Bom and charset detection, then decoding, are done on the bytes in memory. No stream layers involved.
+   * Since the bytes are at hand, a detected charset failing to decode them is not the end of it:
+   * ICU's other candidates, then the fallback charset, are tried in turn.
+   */
+  private CueLineReader decode(ByteBuffer bytes, CueSheetContext context) throws BadCharsetException {
+    Charset charset = handleBomAndCharset(bytes, context);
+    try {
+      return new CueLineReader(decode(bytes, charset));
+    } catch (BadCharsetException e) {
+      CharsetOrigin origin = context.getCharsetOrigin();
+      if (origin == CharsetOrigin.BOM || origin == CharsetOrigin.OPTIONS) { // not to be questioned
+        throw e;
+      }
+
+      Map<Charset, CharsetOrigin> candidates = new LinkedHashMap<>();
+      detectCandidates(bytes).forEach(candidate -> candidates.putIfAbsent(candidate, CharsetOrigin.DETECTION_CANDIDATE));
+      if (fallbackCharset != null) {
+        candidates.putIfAbsent(fallbackCharset, CharsetOrigin.FALLBACK);
+      }
+      candidates.remove(charset);
+
+      for (Map.Entry<Charset, CharsetOrigin> candidate : candidates.entrySet()) {
+        try {
+          CharBuffer chars = decode(bytes, candidate.getKey());
+          String message = String.format("Decoded %s with %s since %s failed: %s", context.getPath(), candidate.getKey(), charset, e.getMessage());
+          log.warn(message);
+          context.addIssue(message);
+          context.setCharset(candidate.getKey(), candidate.getValue());
+          return new CueLineReader(chars);
+        } catch (BadCharsetException ignored) {
+          // next one
+        }
+      }
+      throw e;
+    }
+  }
+
+  private static CharBuffer decode(ByteBuffer bytes, Charset charset) throws BadCharsetException {
+    try {
+      // A decoder reports malformed input, unlike new String(bytes, charset) which would
+      // allow to read eg: iso-8859-1 files using an utf8 charset.
+      return charset.newDecoder().decode(bytes.duplicate());
+    } catch (CharacterCodingException e) {
+      throw new BadCharsetException(e);
+    }
+  }
+
+  /**
+   * @return ICU's matches, best first, whatever their confidence
+   */
+  private static List<Charset> detectCandidates(ByteBuffer bytes) {
+    CharsetDetector cd = new CharsetDetector();
+    try {
+      cd.setText(new ByteArrayInputStream(bytes.array(), bytes.position(), bytes.remaining()));
+    } catch (IOException e) { // cannot happen on a ByteArrayInputStream
+      return List.of();
     }
+
+    List<Charset> candidates = new ArrayList<>();
+    for (CharsetMatch cm : cd.detectAll()) {
+      try {
+        candidates.add(Charset.forName(cm.getName()));
+      } catch (IllegalArgumentException e) { // unsupported by this JVM
+        log.debug("Skipping candidate {}", cm.getName(), e);
+      }
+    }
+    return candidates;
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(size);
+    while (bytes.hasRemaining() && channel.read(bytes) >= 0); // a single read, unless interrupted or the file is growing
+    return bytes.flip();
   }
 
   public CueSheetReadout readCueSheet(URL cueFile) throws IOException, BadCharsetException {
@@ -130,14 +280,20 @@ public final class CueSheetReader {
   }
 
   public CueDisc readCueSheet(InputStream is, CueSheetContext context) throws IOException, BadCharsetException {
+    CueDiscBuilder builder = new CueDiscBuilder(context);
+    readCueSheet(is, context, builder);
+    return builder.getDisc();
+  }
+
+  public void readCueSheet(InputStream is, CueSheetContext context, CueSheetHandler handler) throws IOException, BadCharsetException {
     if(!is.markSupported()) {
       is = new BufferedInputStream(is);
     }
 
     Charset charset = handleBomAndCharset(is, context);
 
-    try (InputStreamReader reader = new InputStreamReader(is, charset)) {
-      return readCueSheet(reader, context);
+    try (CueLineReader reader = new CueLineReader(is, charset)) {
+      readCueSheet(reader, context, handler);
     }
   }
 
@@ -149,16 +305,27 @@ public final class CueSheetReader {
   }
 
   public CueDisc readCueSheet(CharSequence[] lines, CueSheetContext context) throws IOException, BadCharsetException {
-    byte[] bytes = String.join("\n", lines)
-        .getBytes(context.getOptions().getCharset());
-    return readCueSheet(bytes, context);
+    return readCueSheet(Arrays.asList(lines), context);
   }
 
   public CueDisc readCueSheet(Iterable<? extends CharSequence> lines, CueSheetContext context) throws IOException, BadCharsetException {
-    Charset charset = context.getOptions().getCharset();
-    byte[] bytes = String.join("\n", lines)
-                         .getBytes(charset);
-    return readCueSheet(bytes, context);
+    StringBuilder text = new StringBuilder();
+    for (CharSequence line : lines) {
+      text.append(line).append('\n');
+    }
+    return readCueSheet(text, context);
+  }
+
+  /**
+   * The text is tokenized as is: no encoding round trip, hence no charset handling. A leading BOM char is skipped though.
+   * An array-backed CharBuffer is not even copied.
+   */
+  public CueDisc readCueSheet(CharSequence text, CueSheetContext context) throws IOException, BadCharsetException {
+    CharBuffer chars = (text instanceof CharBuffer) ? ((CharBuffer) text).duplicate() : CharBuffer.wrap(text);
+    if (chars.hasRemaining() && chars.get(chars.position()) == Bom.BOM_CHAR) {
+      chars.position(chars.position() + 1);
+    }
+    return readCueSheet(new CueLineReader(chars), context);
   }
 
   public CueDisc readCueSheet(byte[] bytes, CueSheetContext context) throws IOException, BadCharsetException {
@@ -166,79 +333,125 @@ public final class CueSheetReader {
   }
 
   public static CueDisc readCueSheet(CueLineReader cueLineReader, CueSheetContext context) throws IOException, BadCharsetException {
-    CueOptions options = context.getOptions();
-    CueDisc disc = new CueDisc(context.getPath(), options.getCharset());
-    int previousTrackNum = 0;
-
-    CueLine line;
-    while((line = cueLineReader.readLine()) != null) {
-      if (!line.isSkippable()) {
-        previousTrackNum = readCueSheetLine(cueLineReader, line, previousTrackNum, disc, context);
-      }
-    }
-
-    // if some timecodes were straightened, the odds are that all the timecodes' frames of the sheet were in hundredths of a second
-    if(options.isTimeCodeLeniency()
-        && disc.getIndexes().stream().anyMatch(index -> index.getTimeCode().isScaled100to75())) {
-      disc.getIndexes().stream()
-          .filter(index -> !index.getTimeCode().isScaled100to75())
-          .forEach(cueIndex -> cueIndex.setTimeCode(cueIndex.getTimeCode().scale100to75()));
-    }
-
-    return disc;
+    CueDiscBuilder builder = new CueDiscBuilder(context);
+    readCueSheet(cueLineReader, context, builder);
+    return builder.getDisc();
   }
 
-  /**
-   * @param is must support marking
-   * @param context; its options charset may be altered if the bom or the charset detection decides
-   * @return detected charset, else fallback
-   * @throws IOException when issue reading the stream
-   */
-  private Charset handleBomAndCharset(InputStream is, CueSheetContext context) throws IOException, BadCharsetException {
-    CueOptions options = context.getOptions();
-    try {
-      return handleBomAndCharset(is, options);
-    } catch (BadCharsetException e) {
-      Charset fallback = options.getCharset();
-      if(fallback != null) {
-        String message = String.format("Fallback to %s for %s: %s", this.fallbackCharset, context.getPath(), e.getMessage());
-        log.warn(message, e);
-        context.addIssue(message);
-        return fallback;
-      } else {
-        throw e;
+  public static void readCueSheet(CueLineReader cueLineReader, CueSheetContext context, CueSheetHandler handler) throws IOException, BadCharsetException {
+    CueTokenReader tokens = new CueTokenReader(cueLineReader, context, handler);
+    handler.onStart(context);
+
+    CueTokenType type;
+    while ((type = tokens.next()) != CueTokenType.END) {
+      switch (type) {
+        case DISC_FIELD:
+          handler.onDiscField(tokens.getKeyword(), tokens.getValue());
+          break;
+        case FILE:
+          handler.onFile(tokens.getValue(), tokens.getFileType());
+          break;
+        case FILE_END:
+          handler.onFileEnd();
+          break;
+        case TRACK:
+          handler.onTrack(tokens.getNumber(), tokens.getTrackType());
+          break;
+        case TRACK_FIELD:
+          readTrackField(tokens, handler);
+          break;
+        case INDEX:
+          handler.onIndex(tokens.getNumber(), tokens.getTimeCode());
+          break;
+        case REM:
+          handler.onRemark(tokens.getTag(), tokens.getValue());
+          break;
+        default:
+          handler.onOther(tokens.getKeyword(), tokens.getValue());
       }
     }
+    handler.onEnd();
+  }
+
+  private static void readTrackField(CueTokenReader tokens, CueSheetHandler handler) throws IOException {
+    String keyword = tokens.getKeyword();
+    switch (keyword) {
+      case PREGAP:
+        handler.onPreGap(tokens.getTimeCode());
+        break;
+      case POSTGAP:
+        handler.onPostGap(tokens.getTimeCode());
+        break;
+      case FLAGS:
+        handler.onFlags(tokens.getFlags());
+        break;
+      default:
+        handler.onTrackField(keyword, tokens.getValue());
+    }
   }
 
   /**
-   * @param is must support marking
-   * @param options to be altered if the bom or the charset detection decides
+   * @param is must support marking, will be positioned after the BOM if any
+   * @param context; records the charset decided on, the options are left untouched
    * @return detected charset, else fallback
    * @throws IOException when issue reading the stream
    */
-  private Charset handleBomAndCharset(InputStream is, CueOptions options) throws IOException, BadCharsetException {
+  private Charset handleBomAndCharset(InputStream is, CueSheetContext context) throws IOException, BadCharsetException {
     is.mark(Bom.MAX_LENGTH_BYTES);
     Bom bom = Bom.read(is);
     is.reset();
 
-    Charset actualCharset = options.getCharset();
     if (bom != null) {
       int skipped = 0;
       while(skipped < bom.length()) {
         skipped += (int) is.skip(bom.length());
       }
-      // and forcing charset to the one we're now sure of.
+    }
+    return handleCharset(bom, () -> detectEncoding(is), context);
+  }
+
+  /**
+   * @param bytes will be positioned after the BOM if any
+   * @param context; records the charset decided on, the options are left untouched
+   * @return detected charset, else fallback
+   */
+  private Charset handleBomAndCharset(ByteBuffer bytes, CueSheetContext context) throws BadCharsetException {
+    Bom bom = Bom.identify(bytes.array(), Math.min(bytes.remaining(), Bom.MAX_LENGTH_BYTES));
+    if (bom != null) {
+      bytes.position(bom.length());
+    }
+    return handleCharset(bom, () -> detectEncoding(bytes.array(), bytes.limit()), context);
+  }
+
+  /**
+   * @param bom takes precedence over the options' charset
+   * @param detection used only when there's neither a BOM nor a charset in the options
+   * @param context; records the charset decided on, the options are left untouched
+   * @return detected charset, else fallback
+   */
+  private Charset handleCharset(Bom bom, Supplier<Charset> detection, CueSheetContext context) throws BadCharsetException {
+    Charset actualCharset = context.getOptions().getCharset();
+    CharsetOrigin origin = CharsetOrigin.OPTIONS;
+    if (bom != null) {
+      // forcing charset to the one we're now sure of.
       actualCharset = bom.getCharset();
-    } else if(options.getCharset() == null) {
+      origin = CharsetOrigin.BOM;
+    } else if(actualCharset == null) {
       try {
-        actualCharset = detectEncoding(is);
+        actualCharset = detection.get();
+        origin = CharsetOrigin.DETECTION;
       } catch(BadCharsetException e) {
-        options.setCharset(fallbackCharset); // may be null
-        throw e;
+        if(fallbackCharset == null) {
+          throw e;
+        }
+        String message = String.format("Fallback to %s for %s: %s", fallbackCharset, context.getPath(), e.getMessage());
+        log.warn(message, e);
+        context.addIssue(message);
+        actualCharset = fallbackCharset;
+        origin = CharsetOrigin.FALLBACK;
       }
     }
-    options.setCharset(actualCharset);
+    context.setCharset(actualCharset, origin);
     return actualCharset;
   }
 
@@ -258,11 +471,38 @@ public final class CueSheetReader {
     }
   }
 
+  /**
+   * Same decision as detecting from a stream of these bytes, the fast scan being done on all of them though
+   */
+  Charset detectEncoding(byte[] bytes, int length) throws BadCharsetException {
+    Charset charset = FastCharsetDetector.detect(bytes, 0, length, false);
+    return (charset != null) ? charset : detectEncodingIcu(new ByteArrayInputStream(bytes, 0, length));
+  }
+
+  /**
+   * Pure ASCII and valid UTF-8 are told by a byte scan, ICU is only called for what's left.
+   */
   public Charset detectEncoding(InputStream is) throws BadCharsetException {
     if(!is.markSupported()) { // icu calls reset() on the stream, so it needs to support mark()
       is = new BufferedInputStream(is); // no try,
     }
 
+    byte[] sample;
+    try {
+      is.mark(FastCharsetDetector.SAMPLE_LENGTH);
+      sample = is.readNBytes(FastCharsetDetector.SAMPLE_LENGTH);
+      is.reset();
+    } catch (IOException e) {
+      throw new BadCharsetException(e);
+    }
+    Charset charset = FastCharsetDetector.detect(sample, 0, sample.length, sample.length == FastCharsetDetector.SAMPLE_LENGTH);
+    return (charset != null) ? charset : detectEncodingIcu(is);
+  }
+
+  /**
+   * @param is must support marking
+   */
+  private Charset detectEncodingIcu(InputStream is) throws BadCharsetException {
     CharsetDetector cd = new CharsetDetector();
     try {
       cd.setText(is);
@@ -276,193 +516,4 @@ public final class CueSheetReader {
       throw new BadCharsetException("Confidence low. Cannot detect charset");
     }
   }
-
-  private static int readCueSheetLine(CueLineReader cueLineReader, CueLine line, int previousTrackNum, CueDisc disc, CueSheetContext context) throws IOException {
-    String keyword = line.getKeyword();
-    if (keyword != null) {
-      String tail = line.getTail();
-
-      switch (keyword) {
-        case TITLE:
-          disc.setTitle(unquote(tail));
-          break;
-        case PERFORMER:
-          disc.setPerformer(unquote(tail));
-          break;
-        case SONGWRITER:
-          disc.setSongwriter(unquote(tail));
-          break;
-        case CATALOG:
-          disc.setCatalog(unquote(tail));
-          break;
-        case CueFile.KEYWORD:
-          FileReference fileReference = CueFile.parse(tail, context);
-          CueFile file = readFile(fileReference, previousTrackNum, cueLineReader, context);
-          disc.addFileUnsafe(file);
-          CueTrack latestTrack = file.getLastTrack();
-          if(latestTrack != null) { // a file without track may be possible on a peculiar cue sheet
-            previousTrackNum = latestTrack.number;
-          }
-          break;
-        case CDTEXTFILE:
-          disc.setCdTextFile(unquote(tail));
-          break;
-        case CueRemark.KEYWORD:
-          disc.addRemark(readRemark(line));
-          break;
-        default:
-          context.addIssue("%s#%s: Unknown disc line: %s", context.getPath(), line.getLineNumber(), line.getRaw());
-          disc.addOther(readOther(line));
-      }
-    } else {
-      context.addIssue(MESSAGE_NO_KEYWORD, context.getPath(), line.getLineNumber(), line.getRaw());
-    }
-    return previousTrackNum;
-  }
-
-
-  /**
-   * REM DISCID 750FF008
-   * REM COMMENT "ExactAudioCopy v1.0b3"
-   */
-  private static CueRemark readRemark(CueLine line) {
-    String tail = line.getTail();
-    if (tail != null) {
-      int sep = tail.indexOf(' ');
-      if (sep >= 0) {
-        String type = tail.substring(0, sep);
-        if(CueRemark.TAGS.contains(type)) {
-          String content = tail.substring(sep + 1).trim();
-          return new CueRemark(type, unquote(content));
-        } else {
-          return new CueRemark(null, unquote(tail));
-        }
-      }
-    }
-
-    return new CueRemark(null, unquote(tail));
-  }
-
-  private static CueOther readOther(CueLine line) {
-    return new CueOther(line.getKeyword(), unquote(line.getTail()));
-  }
-
-  private static CueFile readFile(FileReference fileReference, int previousTrackNum, CueLineReader reader, CueSheetContext context) throws IOException, BadCharsetException {
-    reader.mark(); // to avoid infinite loop on FILE followed by FILE
-    CueFile file = new CueFile(fileReference);
-
-    CueLine line;
-    while ((line = reader.readLine()) != null) {
-      if (!line.isSkippable()) {
-        String keyword = line.getKeyword();
-        if (keyword != null) {
-          switch (keyword) {
-            case CueFile.KEYWORD: // found new file
-              reader.reset();
-              return file;
-            case CueTrack.KEYWORD:
-              int number = Integer.parseInt(line.getTailWord(0));
-              String type = line.getTailWord(1);
-              file.addTrackUnsafe(readTrack(number, type, reader, context)); // cannot control track numbers' consistency/chaining
-              file.renumberingNecessary = file.renumberingNecessary || (number != ++previousTrackNum);
-              break;
-            default:
-              context.addIssue("%S: Unknown file line: %S", context.getPath(), line.getRaw());
-              // maybe belongs to the upper level
-              reader.reset();
-              return file;
-          }
-        } else {
-          context.addIssue(MESSAGE_NO_KEYWORD, context.getPath(), line.getLineNumber(), line.getRaw());
-        }
-      }
-      reader.mark();
-    }
-
-    return file; // for the last file
-  }
-
-
-  private static CueTrack readTrack(int trackNumber, String type, CueLineReader reader, CueSheetContext context) throws IOException, BadCharsetException {
-    reader.mark();
-    CueTrack track = new CueTrack(trackNumber, type);
-
-    CueLine line;
-    while ((line = reader.readLine()) != null) {
-      if (!line.isSkippable()) {
-        String keyword = line.getKeyword();
-        if (keyword != null) {
-          String tail = line.getTail();
-
-          switch (keyword) {
-            case CueFile.KEYWORD: // found new file
-            case CueTrack.KEYWORD: // found new track
-              reader.reset();
-              return track;
-            case CueIndex.KEYWORD:
-              track.addIndex(readIndex(line, context));
-              break;
-            case TITLE:
-              track.setTitle(unquote(tail));
-              break;
-            case PERFORMER:
-              track.setPerformer(unquote(tail));
-              break;
-            case SONGWRITER:
-              track.setSongwriter(unquote(tail));
-              break;
-            case ISRC:
-              String isrc = unquote(tail);
-              setIsrc(track, isrc, context);
-              break;
-            case PREGAP:
-              track.setPreGap(readTimeCode(tail, context));
-              break;
-            case POSTGAP:
-              track.setPostGap(readTimeCode(tail, context));
-              break;
-            case FLAGS:
-              track.setFlags(readFlags(line));
-              break;
-            case CueRemark.KEYWORD:
-              track.addRemark(readRemark(line));
-              break;
-            default:
-              context.addIssue("%s#%S: Unknown track line: %s", context.getPath(), line.getLineNumber(), line.getRaw());
-              track.addOther(readOther(line));
-          }
-        } else {
-          context.addIssue(MESSAGE_NO_KEYWORD, context.getPath(), line.getLineNumber(), line.getRaw());
-        }
-      }
-      reader.mark();
-    }
-
-    return track; // for the last track
-  }
-
-  private static void setIsrc(CueTrack track, String isrc, CueSheetContext context) {
-    CueOptions options = context.getOptions();
-    if(track.setIsrc(isrc, options.isIsrcLeniency())) {
-      context.addIssue(CueTrack.MESSAGE_BAD_ISRC, isrc);
-    }
-  }
-
-  private static List<CueFlag> readFlags(CueLine line) {
-    return line.getTailParts().stream().map(CueFlag::flagOf).collect(toList());
-  }
-
-  private static CueIndex readIndex(CueLine cueLine, CueSheetContext context) {
-    int number = Integer.parseInt(cueLine.getTailWord(0));
-    String timeCode = cueLine.getTailWord(1);
-    return new CueIndex(number, readTimeCode(timeCode, context));
-  }
-
-  private static TimeCode readTimeCode(String timeCodeString, CueSheetContext context) {
-    TimeCode timeCode = TimeCode.parse(timeCodeString, context.getOptions().isTimeCodeLeniency());
-    if(timeCode.isScaled100to75()) {
-      context.addIssue("Scaled %s to %s", timeCode.toStringRaw(), timeCode);
-    }
-    return timeCode;
-  }
 }
@@ -13,12 +13,17 @@ import lombok.NonNull;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static eu.nonstatic.cue.CueTools.quote;
 import static java.util.stream.Collectors.joining;
@@ -37,14 +42,85 @@ public final class CueSheetWriter {
 
   private CueSheetWriter() {}
 
-  public static void writeCueSheet(CueDisc cueDisc, File cueFile, CueWriteOptions options) throws IOException {
-    writeCueSheet(cueDisc, cueFile.toPath(), options);
+  /**
+   * @return true if the file was written, false if options say to write if changed and it already had this content
+   */
+  public static boolean writeCueSheet(CueDisc cueDisc, File cueFile, CueWriteOptions options) throws IOException {
+    return writeCueSheet(cueDisc, cueFile.toPath(), options);
   }
 
-  public static void writeCueSheet(@NonNull CueDisc cueDisc, @NonNull Path cueFile, CueWriteOptions options) throws IOException {
+  /**
+   * @return true if the file was written, false if options say to write if changed and it already had this content
+   */
+  public static boolean writeCueSheet(@NonNull CueDisc cueDisc, @NonNull Path cueFile, CueWriteOptions options) throws IOException {
+    if(options.isWriteIfChanged()) {
+      var rendered = new ByteArrayOutputStream();
+      writeCueSheet(cueDisc, rendered, options);
+      return writeIfChanged(cueFile, rendered.toByteArray(), options.isOverwrite());
+    }
     try (OutputStream os = Files.newOutputStream(cueFile, options.isOverwrite() ? OPTIONS_OVERWRITE : OPTIONS_STANDARD)) {
       writeCueSheet(cueDisc, os, options);
     }
+    return true;
+  }
+
+  /**
+   * Compares the file with the content, by size then chunk by chunk, and only if they differ replaces it through a temp file renamed over it.
+   * So the file is either left untouched or has the whole new content, never a partial one.
+   * A symbolic link is followed, the file it points to is the one replaced. The replacement gets the POSIX permissions
+   * of the replaced file, but neither its owner nor its ACLs.
+   * @return true if written
+   * @throws FileAlreadyExistsException if the file exists with another content and overwrite is false
+   */
+  static boolean writeIfChanged(Path cueFile, byte[] content, boolean overwrite) throws IOException {
+    boolean exists = Files.exists(cueFile);
+    if(exists) {
+      cueFile = cueFile.toRealPath(); // the link itself stays as is
+
+      if(hasContent(cueFile, content)) {
+        return false;
+      } else if(!overwrite) {
+        throw new FileAlreadyExistsException(cueFile.toString());
+      }
+    }
+
+    Path temp = cueFile.resolveSibling(cueFile.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+    try {
+      Files.write(temp, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE); // same permissions a new file would have
+      if(exists) {
+        copyPermissions(cueFile, temp);
+        Files.move(temp, cueFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } else {
+        Files.move(temp, cueFile); // fails if created meanwhile
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return true;
+  }
+
+  private static boolean hasContent(Path file, byte[] content) throws IOException {
+    if(Files.size(file) != content.length) {
+      return false;
+    }
+    try (InputStream is = Files.newInputStream(file)) {
+      byte[] chunk = new byte[8192];
+      int offset = 0;
+      int read;
+      while ((read = is.readNBytes(chunk, 0, chunk.length)) > 0) {
+        if(offset + read > content.length || !Arrays.equals(chunk, 0, read, content, offset, offset + read)) {
+          return false;
+        }
+        offset += read;
+      }
+      return offset == content.length;
+    }
+  }
+
+  private static void copyPermissions(Path source, Path target) throws IOException {
+    if(Files.getFileStore(source).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+    }
   }
 
   public static void writeCueSheet(CueDisc cueDisc, OutputStream os, CueWriteOptions options) throws IOException {
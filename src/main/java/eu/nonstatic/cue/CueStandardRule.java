@@ -0,0 +1,137 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The rules of {@link CueDisc#checkConsistency(CueWriteOptions)}, in the order it runs them.
+ */
+public enum CueStandardRule implements CueRule {
+
+  /**
+   * At least one track unless options allow none, and no track numbered above 99
+   */
+  TRACK_COUNT(Scope.DISC, COST_SHEET) {
+    @Override
+    public void checkDisc(CueDisc disc, CueWriteOptions options, CueIssues issues) {
+      try {
+        int trackCount = disc.getTrackCount();
+        int minTrackCount = options.isNoTrackAllowed() ? 0 : 1;
+        CueTools.validateRange("Tracks count", trackCount, minTrackCount, CueTrack.TRACK_MAX);
+        CueTools.validateRange("Track max", disc.getFirstTrackNumber() + trackCount - 1, minTrackCount, CueTrack.TRACK_MAX);
+      } catch (IllegalArgumentException e) {
+        issues.add(e);
+      }
+    }
+  },
+
+  /**
+   * Each track on its own
+   */
+  TRACKS(Scope.FILE, COST_SHEET) {
+    @Override
+    public void checkFile(CueFile file, CueWriteOptions options, CueIssues issues) {
+      issues.addAll(file.getCheckedTracksIssues()); // only the tracks modified since the last check are checked again
+    }
+  },
+
+  /**
+   * Each file starting at 00:00:00
+   */
+  FIRST_INDEX(Scope.FILE, COST_SHEET) {
+    @Override
+    public void checkFile(CueFile file, CueWriteOptions options, CueIssues issues) {
+      file.checkFirstIndex(issues);
+    }
+  },
+
+  /**
+   * Timecodes chaining within each file, if options require ordered timecodes
+   */
+  TIMECODES_CHAINING(Scope.FILE, COST_SHEET) {
+    @Override
+    public void checkFile(CueFile file, CueWriteOptions options, CueIssues issues) {
+      if(options.isOrderedTimeCodes()) {
+        issues.addAll(file.getCheckedChainingIssues());
+      }
+    }
+  },
+
+  /**
+   * Each track lasting at least the options' min duration, if any
+   */
+  MIN_TRACK_DURATION(Scope.DISC, COST_PROBING) {
+    @Override
+    public void checkDisc(CueDisc disc, CueWriteOptions options, CueIssues issues) {
+      Duration minTrackDuration = options.getMinTrackDuration();
+      if(minTrackDuration != null) {
+        boolean seenFirst = false;
+        for (CueFile file : disc.getFiles()) {
+          for (Map.Entry<CueTrack, Duration> entry : file.getCheckedTracksDurations().entrySet()) {
+            // Adding lead-in time on first track. Originally the min track duration is meant to always have a seek window margin of 2 seconds,
+            // even when rewinding to the first index of the first track (which is then 2 seconds minimum). Lead-in is there even if there's a hidden track.
+            Duration trackDuration = entry.getValue();
+            if(!seenFirst) {
+              seenFirst = true;
+              trackDuration = trackDuration.plus(CueDisc.DURATION_LEAD_IN);
+            }
+
+            if (trackDuration.compareTo(minTrackDuration) < 0) {
+              Integer trackNumber = entry.getKey().getNumber();
+              issues.add(String.format("Track %s duration %s is below %s", trackNumber, trackDuration, minTrackDuration));
+            }
+          }
+        }
+      }
+    }
+  },
+
+  /**
+   * The disc fitting within the options' burning limit, if any
+   */
+  BURNING_LIMIT(Scope.DISC, COST_PROBING) {
+    @Override
+    public void checkDisc(CueDisc disc, CueWriteOptions options, CueIssues issues) {
+      Long burningLimit = options.getBurningLimit();
+      if(burningLimit != null) {
+        long sizeOnDisc = disc.getCheckedSizeOnDisc();
+        if (sizeOnDisc > burningLimit) {
+          issues.add(new TooMuchDataException(burningLimit, sizeOnDisc));
+        }
+      }
+    }
+  };
+
+
+  private final Scope scope;
+  private final int cost;
+
+  CueStandardRule(Scope scope, int cost) {
+    this.scope = scope;
+    this.cost = cost;
+  }
+
+  @Override
+  public String getName() {
+    return name();
+  }
+
+  @Override
+  public Scope getScope() {
+    return scope;
+  }
+
+  @Override
+  public int getCost() {
+    return cost;
+  }
+}
@@ -0,0 +1,367 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static eu.nonstatic.cue.CueWords.CATALOG;
+import static eu.nonstatic.cue.CueWords.CDTEXTFILE;
+import static eu.nonstatic.cue.CueWords.FLAGS;
+import static eu.nonstatic.cue.CueWords.ISRC;
+import static eu.nonstatic.cue.CueWords.PERFORMER;
+import static eu.nonstatic.cue.CueWords.POSTGAP;
+import static eu.nonstatic.cue.CueWords.PREGAP;
+import static eu.nonstatic.cue.CueWords.SONGWRITER;
+import static eu.nonstatic.cue.CueWords.TITLE;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Pull (StAX-like) reading of a cue sheet: each {@link #next()} reads lines until it finds the next token.
+ * Accessors only work on the current token. Numbers, keywords, tags and track types come without allocating,
+ * values are copied only when asked for. So a caller may skip tracks or files, or just stop reading early.
+ *
+ * Single pass state machine: each line is read and tokenized once.
+ * A FILE or TRACK line ends the current track, a FILE line or an unknown line ends the current file,
+ * in which case the line is pushed back so that it is read again by the upper level.
+ */
+public class CueTokenReader implements Closeable {
+
+  private static final CueSheetHandler NO_HANDLER = new CueSheetHandler() {};
+
+  private enum ParseLevel { DISC, FILE, TRACK }
+
+  private final CueLineReader lineReader;
+  @Getter
+  private final CueSheetContext context;
+  private final CueSheetHandler issueHandler;
+
+  private ParseLevel level = ParseLevel.DISC;
+  private CueLine line;
+  private boolean pushedBack;
+  private boolean eof;
+
+  @Getter
+  private CueTokenType type;
+  private int number; // TRACK and INDEX
+  private int valueStart; // REM value start in the tail
+  private String tag;
+  private String value;
+  private FileReference fileReference;
+  private TimeCode timeCode;
+
+  public CueTokenReader(CueLineReader lineReader, CueSheetContext context) {
+    this(lineReader, context, NO_HANDLER);
+  }
+
+  /**
+   * @param issueHandler told about the issues as soon as they're added to the context
+   */
+  CueTokenReader(CueLineReader lineReader, CueSheetContext context, CueSheetHandler issueHandler) {
+    this.lineReader = lineReader;
+    this.context = context;
+    this.issueHandler = issueHandler;
+  }
+
+  /**
+   * @return the next token type, END repeatedly once the end is reached
+   */
+  public CueTokenType next() throws IOException, BadCharsetException {
+    tag = null;
+    value = null;
+    fileReference = null;
+    timeCode = null;
+
+    while (type != CueTokenType.END) {
+      if (pushedBack) {
+        pushedBack = false;
+      } else {
+        line = eof ? null : lineReader.readLine();
+        if (line == null) {
+          eof = true;
+          return type = (level != ParseLevel.DISC) ? endFile() : CueTokenType.END;
+        } else if (line.isSkippable()) {
+          continue;
+        }
+      }
+
+      CueTokenType accepted = accept(line);
+      if (accepted != null) {
+        return type = accepted;
+      }
+    }
+    return type;
+  }
+
+  /**
+   * Reads past the current track
+   * @return the first token after the track, be it TRACK, FILE_END or END
+   */
+  public CueTokenType skipTrack() throws IOException, BadCharsetException {
+    CueTokenType next;
+    do {
+      next = next();
+    } while (level == ParseLevel.TRACK && next != CueTokenType.TRACK);
+    return next;
+  }
+
+  /**
+   * Reads past the current file and its tracks
+   * @return the first token after the file's FILE_END
+   */
+  public CueTokenType skipFile() throws IOException, BadCharsetException {
+    if (level != ParseLevel.DISC) {
+      while (next() != CueTokenType.FILE_END);
+    }
+    return next();
+  }
+
+  /**
+   * @return null if the line doesn't belong to the current level and has to be read again by the upper one
+   */
+  private CueTokenType accept(CueLine line) throws IOException {
+    switch (level) {
+      case TRACK:
+        return acceptTrackLine(line);
+      case FILE:
+        return acceptFileLine(line);
+      default:
+        return acceptDiscLine(line);
+    }
+  }
+
+  private CueTokenType acceptDiscLine(CueLine line) throws IOException {
+    switch (line.getKeyword()) { // known keywords come as CueWords constants, no allocation
+      case TITLE:
+      case PERFORMER:
+      case SONGWRITER:
+      case CATALOG:
+      case CDTEXTFILE:
+        return CueTokenType.DISC_FIELD;
+      case CueFile.KEYWORD:
+        level = ParseLevel.FILE;
+        return CueTokenType.FILE;
+      case CueRemark.KEYWORD:
+        return acceptRemark(line);
+      default:
+        issue("%s#%s: Unknown disc line: %s", context.getPath(), line.getLineNumber(), line.getRaw());
+        return CueTokenType.OTHER;
+    }
+  }
+
+  private CueTokenType acceptFileLine(CueLine line) throws IOException {
+    switch (line.getKeyword()) {
+      case CueFile.KEYWORD: // found new file
+        pushedBack = true;
+        return endFile();
+      case CueTrack.KEYWORD:
+        number = line.getTailWordAsInt(0);
+        level = ParseLevel.TRACK;
+        return CueTokenType.TRACK;
+      default:
+        issue("%S: Unknown file line: %S", context.getPath(), line.getRaw());
+        // maybe belongs to the upper level
+        pushedBack = true;
+        return endFile();
+    }
+  }
+
+  private CueTokenType acceptTrackLine(CueLine line) throws IOException {
+    switch (line.getKeyword()) {
+      case CueFile.KEYWORD: // found new file
+      case CueTrack.KEYWORD: // found new track
+        level = ParseLevel.FILE;
+        pushedBack = true;
+        return null;
+      case CueIndex.KEYWORD:
+        number = line.getTailWordAsInt(0);
+        return CueTokenType.INDEX;
+      case TITLE:
+      case PERFORMER:
+      case SONGWRITER:
+      case ISRC:
+      case PREGAP:
+      case POSTGAP:
+      case FLAGS:
+        return CueTokenType.TRACK_FIELD;
+      case CueRemark.KEYWORD:
+        return acceptRemark(line);
+      default:
+        issue("%s#%S: Unknown track line: %s", context.getPath(), line.getLineNumber(), line.getRaw());
+        return CueTokenType.OTHER;
+    }
+  }
+
+  private CueTokenType endFile() {
+    level = ParseLevel.DISC;
+    return CueTokenType.FILE_END;
+  }
+
+  /**
+   * REM DISCID 750FF008
+   * REM COMMENT "ExactAudioCopy v1.0b3"
+   */
+  private CueTokenType acceptRemark(CueLine line) {
+    int sep = line.tailIndexOf(' ');
+    tag = (sep >= 0) ? line.matchTail(0, sep, CueRemark.TAGS) : null; // the constant itself, if any
+    valueStart = (tag != null) ? sep + 1 : 0;
+    return CueTokenType.REM;
+  }
+
+  private void issue(String format, Object... args) throws IOException {
+    CueSheetIssue issue = new CueSheetIssue(String.format(format, args));
+    context.addIssue(issue);
+    issueHandler.onIssue(issue);
+  }
+
+  private void checkType(CueTokenType... expected) {
+    for (CueTokenType t : expected) {
+      if (t == type) {
+        return;
+      }
+    }
+    throw new IllegalStateException("Not available on " + type);
+  }
+
+  /**
+   * @return the line number of the current token, -1 for FILE_END and END
+   */
+  public int getLineNumber() {
+    return (type == CueTokenType.FILE_END || type == CueTokenType.END) ? -1 : line.getLineNumber();
+  }
+
+  /**
+   * @return the current line, trimmed. Valid until the next token.
+   */
+  public CharSequence getLine() {
+    return currentLine();
+  }
+
+  private CueLine currentLine() {
+    checkType(CueTokenType.DISC_FIELD, CueTokenType.FILE, CueTokenType.TRACK, CueTokenType.TRACK_FIELD,
+        CueTokenType.INDEX, CueTokenType.REM, CueTokenType.OTHER);
+    return line;
+  }
+
+  /**
+   * @return true when the current REM or OTHER token belongs to a track, false when it belongs to the disc
+   */
+  public boolean isInTrack() {
+    return level == ParseLevel.TRACK;
+  }
+
+  /**
+   * @return the upper-cased keyword, which is the very {@link CueWords} constant when known
+   */
+  public String getKeyword() {
+    return currentLine().getKeyword();
+  }
+
+  /**
+   * @return the number of the current TRACK or INDEX
+   */
+  public int getNumber() {
+    checkType(CueTokenType.TRACK, CueTokenType.INDEX);
+    return number;
+  }
+
+  /**
+   * @return the {@link TrackType} constant when known
+   */
+  public String getTrackType() {
+    checkType(CueTokenType.TRACK);
+    return line.getTailWord(1, TrackType.ALL);
+  }
+
+  /**
+   * @return the {@link CueRemark} tag constant if any, else null
+   */
+  public String getTag() {
+    checkType(CueTokenType.REM);
+    return tag;
+  }
+
+  /**
+   * @return the unquoted value of DISC_FIELD, TRACK_FIELD, REM (after the tag if any) and OTHER tokens, the file name of FILE tokens
+   */
+  public String getValue() {
+    if (value == null) {
+      if (type == CueTokenType.FILE) {
+        value = getFileReference().getFile();
+      } else {
+        checkType(CueTokenType.DISC_FIELD, CueTokenType.TRACK_FIELD, CueTokenType.REM, CueTokenType.OTHER);
+        value = line.getUnquotedTail(type == CueTokenType.REM ? valueStart : 0);
+      }
+    }
+    return value;
+  }
+
+  public FileType getFileType() {
+    return getFileReference().getType();
+  }
+
+  /**
+   * @return the file as written in the sheet, neither resolved against the sheet's directory nor probed
+   */
+  private FileReference getFileReference() {
+    checkType(CueTokenType.FILE);
+    if (fileReference == null) {
+      fileReference = CueFile.parse(line.getTail());
+    }
+    return fileReference;
+  }
+
+  /**
+   * @return the timecode of INDEX, PREGAP and POSTGAP tokens
+   */
+  public TimeCode getTimeCode() throws IOException {
+    checkType(CueTokenType.INDEX, CueTokenType.TRACK_FIELD);
+    if (timeCode == null) {
+      String timeCodeString;
+      if (type == CueTokenType.INDEX) {
+        timeCodeString = line.getTailWord(1);
+      } else if (line.getKeyword() == PREGAP || line.getKeyword() == POSTGAP) {
+        timeCodeString = line.getTail();
+      } else {
+        throw new IllegalStateException("No timecode on " + line.getKeyword());
+      }
+
+      timeCode = TimeCode.parse(timeCodeString, context.getOptions().isTimeCodeLeniency());
+      if(timeCode.isScaled100to75()) {
+        issue("Scaled %s to %s", timeCode.toStringRaw(), timeCode);
+      }
+    }
+    return timeCode;
+  }
+
+  /**
+   * @return the flags of a FLAGS track field
+   */
+  public List<CueFlag> getFlags() {
+    checkType(CueTokenType.TRACK_FIELD);
+    if (line.getKeyword() != FLAGS) {
+      throw new IllegalStateException("No flags on " + line.getKeyword());
+    }
+    int count = line.getTailWordCount();
+    List<CueFlag> flags = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      flags.add(CueFlag.flagOf(line.getTailWord(i, CueFlag.FLAGS)));
+    }
+    return flags;
+  }
+
+  @Override
+  public void close() throws IOException {
+    lineReader.close();
+  }
+}
@@ -0,0 +1,25 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+/**
+ * Tokens of a {@link CueTokenReader}
+ */
+public enum CueTokenType {
+  DISC_FIELD, // TITLE, PERFORMER, SONGWRITER, CATALOG, CDTEXTFILE
+  FILE,
+  FILE_END, // no line, ends the current file
+  TRACK,
+  TRACK_FIELD, // TITLE, PERFORMER, SONGWRITER, ISRC, PREGAP, POSTGAP, FLAGS
+  INDEX,
+  REM, // disc or track level, see CueTokenReader#isInTrack()
+  OTHER, // unknown line, disc or track level
+  END
+}
@@ -10,9 +10,14 @@
 package eu.nonstatic.cue;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -71,6 +76,12 @@ public final class CueTools {
     }
   }
 
+  static void validateNotFrozen(boolean frozen) {
+    if(frozen) {
+      throw new UnsupportedOperationException("Frozen, use deepCopy() to get a mutable copy");
+    }
+  }
+
   public static String validateLength(String name, String str, int minLength, int maxLength, boolean trim, boolean nullAllowed) {
     if(trim) {
       str = trimToNull(str);
@@ -122,4 +133,26 @@ public final class CueTools {
     // Not fs.provider().isSameFile() that might try and access the files
     return lower.equals(fs.getPath("CICS" + suffix));
   }
+
+  /**
+   * @return the SHA-256 of the file's content
+   */
+  static byte[] hash(Path file) throws IOException {
+    MessageDigest digest = newDigest();
+    try (InputStream is = new DigestInputStream(Files.newInputStream(file), digest)) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    return digest.digest();
+  }
+
+  /**
+   * @return a SHA-256 digest, as hash() computes
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) { // every JVM has it
+      throw new IllegalStateException(e);
+    }
+  }
 }
@@ -66,6 +66,14 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
 
   private final List<CueRemark> remarks;
   private final List<CueOther> others;
+  @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private boolean frozen;
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  CueFile file; // the file holding this track, told about changes
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private CueIssues checkedIssues; // null until checked, or once modified
+  @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+  private Integer checkedNumber; // issues mention the track number
 
 
   public CueTrack(String type) {
@@ -111,17 +119,59 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
     return trackCopy;
   }
 
+  /**
+   * Makes this track and its indexes read-only, see {@link CueDisc#freeze()}
+   */
+  void freeze() {
+    indexes.forEach(CueIndex::freeze);
+    frozen = true;
+  }
+
+  /**
+   * The number only holds until the next lookup on the disc, which renumbers its tracks
+   */
+  public void setNumber(Integer number) {
+    modified();
+    this.number = number;
+    if(file != null) {
+      file.renumberingNecessary = true;
+      if(file.disc != null) {
+        file.disc.tracksModified();
+      }
+    }
+  }
+
+  private void modified() {
+    CueTools.validateNotFrozen(frozen);
+    invalidate();
+  }
+
+  void invalidate() {
+    checkedIssues = null;
+    if(file != null) {
+      file.invalidate();
+    }
+  }
+
+  public void setType(String type) {
+    modified();
+    this.type = Objects.requireNonNull(type, "type");
+  }
+
   public void setTitle(String title) {
+    modified();
     CueTools.validateCdText("title", title);
     this.title = title;
   }
 
   public void setPerformer(String performer) {
+    modified();
     CueTools.validateCdText("performer", performer);
     this.performer = performer;
   }
 
   public void setSongwriter(String songwriter) {
+    modified();
     CueTools.validateCdText("songwriter", songwriter);
     this.songwriter = songwriter;
   }
@@ -140,6 +190,7 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
    * @return true if set with leniency
    */
   public boolean setIsrc(String isrc, boolean lenient) {
+    modified();
     if(isrc == null || ISRC_ZERO.equals(isrc)) {
       this.isrc = null;
     } else {
@@ -158,8 +209,17 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
     return false;
   }
 
+  /**
+   * For an ISRC that was already set (and validated or not) on some track, eg: when decoding a disc
+   */
+  void setIsrcUnsafe(String isrc) {
+    modified();
+    this.isrc = isrc;
+  }
+
 
   public void setPreGap(TimeCode preGap) {
+    modified();
     this.preGap = preGap;
   }
 
@@ -168,6 +228,7 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
   }
 
   public void setPostGap(TimeCode postGap) {
+    modified();
     this.postGap = postGap;
   }
 
@@ -180,6 +241,22 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
     return new CueIterator<>(indexes);
   }
 
+  /**
+   * Visits this track, then its indexes unless told to skip them
+   * @return TERMINATE if the visitor stopped the traversal, else CONTINUE
+   */
+  public CueVisitResult accept(CueVisitor visitor) {
+    CueVisitResult result = visitor.visitTrack(this);
+    if(result == CueVisitResult.CONTINUE) {
+      for (int i = 0; i < indexes.size(); i++) { // no iterator
+        if(indexes.get(i).accept(visitor) == CueVisitResult.TERMINATE) {
+          return CueVisitResult.TERMINATE;
+        }
+      }
+    }
+    return result == CueVisitResult.TERMINATE ? result : CueVisitResult.CONTINUE;
+  }
+
   public List<CueIndex> getIndexes() {
     return Collections.unmodifiableList(indexes);
   }
@@ -253,6 +330,7 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
    * It is not possible to check the timecodes consistency across several tracks, so it will have to be done at the track or file or disc level before writing
    */
   public synchronized CueIndex addIndex(CueIndex index, boolean renumber) {
+    modified();
     if(indexes.contains(index)) {
       throw new IllegalArgumentException("The track already contains this index");
     }
@@ -310,14 +388,19 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
   }
 
   protected void addIndexUnsafe(int idx, CueIndex index) {
+    modified();
     indexes.add(idx, index);
+    index.track = this;
   }
 
   protected void addIndexUnsafe(CueIndex index) {
+    modified();
     indexes.add(index);
+    index.track = this;
   }
 
   public CueIndex removeIndex(int number) {
+    modified();
     if (indexes.isEmpty()) {
       throw new IllegalArgumentException("Index list is empty");
     }
@@ -330,6 +413,7 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
       targetIndex = it.next();
       if (targetIndex.getNumber() == number) {
         it.remove();
+        targetIndex.track = null;
         break;
       }
     }
@@ -344,6 +428,8 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
   }
 
   public void clearIndexes() {
+    modified();
+    indexes.forEach(index -> index.track = null);
     indexes.clear();
   }
 
@@ -353,7 +439,30 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
    */
   public CueIssues checkConsistency(boolean withTimeCodes) {
     var issues = new CueIssues();
+    issues.addAll(getCheckedIssues());
+    if(withTimeCodes) {
+      issues.add(checkTimeCodesChaining(null).issue);
+    }
+    return issues;
+  }
+
+  /**
+   * @return the issues of checkConsistency(false), only checked again once this track is modified or renumbered. Not to be modified.
+   */
+  CueIssues getCheckedIssues() {
+    CueIssues issues = checkedIssues;
+    if(issues == null || !Objects.equals(checkedNumber, number)) {
+      issues = new CueIssues();
+      checkConsistency(issues);
+      if(!frozen) { // no hidden writes on a frozen track
+        checkedIssues = issues;
+        checkedNumber = number;
+      }
+    }
+    return issues;
+  }
 
+  private void checkConsistency(CueIssues issues) {
     // check at least one index
     try {
       CueTools.validateRange("Track " + number + " index count", getIndexCount(), 1, CueIndex.INDEX_MAX);
@@ -372,11 +481,6 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
     if(preGap != null && hasPreGapIndex()) {
       issues.add(String.format("Track %d has both a pregap duration and a pregap index", number)); // yet this would happen with a hidden track (first track's index 0) as there's always a 2s pregap
     }
-
-    if(withTimeCodes) {
-      issues.add(checkTimeCodesChaining(null).issue);
-    }
-    return issues;
   }
 
   /**
@@ -385,8 +489,9 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
    */
   TimeCodeValidation checkTimeCodesChaining(CueIndex latestIndex) {
     String issue = null;
-    for (CueIndex index : indexes) {
-      if(latestIndex != null && index.getTimeCode().compareTo(latestIndex.getTimeCode()) < 0) {
+    for (int i = 0; i < indexes.size(); i++) {
+      CueIndex index = indexes.get(i);
+      if(latestIndex != null && index.getFrameCount() < latestIndex.getFrameCount()) {
         issue = String.format("Track %d index %d timecode %s is before its predecessor %s", number, index.number, index.getTimeCode(), latestIndex.getTimeCode());
       }
       latestIndex = index;
@@ -400,20 +505,28 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
     String issue;
   }
 
-  public synchronized Set<CueFlag> getFlags() {
-    return Collections.unmodifiableSet(flags);
+  public Set<CueFlag> getFlags() {
+    if(frozen) { // no lock needed
+      return Collections.unmodifiableSet(flags);
+    }
+    synchronized (this) {
+      return Collections.unmodifiableSet(flags);
+    }
   }
 
   public synchronized void setFlags(Collection<CueFlag> flags) {
+    modified();
     clearFlags();
     this.flags.addAll(flags);
   }
 
   public boolean addFlag(CueFlag cueFlag) {
+    modified();
     return flags.add(cueFlag);
   }
 
   public void clearFlags() {
+    modified();
     flags.clear();
   }
 
@@ -422,10 +535,12 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
   }
 
   public void addRemark(CueRemark remark) {
+    modified();
     remarks.add(remark);
   }
 
   public void clearRemarks() {
+    modified();
     remarks.clear();
   }
 
@@ -435,10 +550,12 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
   }
 
   public void addOther(CueOther other) {
+    modified();
     others.add(other);
   }
 
   public void clearOthers() {
+    modified();
     others.clear();
   }
 
@@ -485,10 +602,10 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
 
       if(otherTrack.getIndexCount() > 0) {
         CueIndex otherStartIndex = otherTrack.getFirstIndex();
-        trackDuration = firstIndex.until(otherStartIndex);
-        if (trackDuration.isNegative()) {
+        if (otherStartIndex.getFrameCount() < firstIndex.getFrameCount()) {
           throw new NegativeDurationException(firstIndex.getTimeCode(), otherStartIndex.getTimeCode());
         }
+        trackDuration = firstIndex.until(otherStartIndex);
       } else {
         throw new IndexNotFoundException(CueIndex.INDEX_PRE_GAP, CueIndex.INDEX_TRACK_START);
       }
@@ -501,13 +618,12 @@ public class CueTrack implements CueEntity, CueIterable<CueIndex> {
       throw new NullPointerException("fileDuration");
     }
 
-    if(preGap != null) {
+    if(preGap != null) { // summing each part's duration, not frames, which would round differently
       trackDuration = trackDuration.plus(preGap.toDuration());
     }
     if(postGap != null) {
       trackDuration = trackDuration.plus(postGap.toDuration());
     }
-
     return trackDuration;
   }
 
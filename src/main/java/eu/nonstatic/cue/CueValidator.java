@@ -0,0 +1,174 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Checks a disc against a selection of rules, cheaper ones first.
+ * - consecutive FILE rules are run file by file, so that with all the standard rules the issues come in the same order as checkConsistency's,
+ * - in fail-fast mode, validation stops at the first issue, which is the only one returned,
+ * - with an executor, the files are checked in parallel, their issues still being returned in file order.
+ * Like checkConsistency, validating repacks or renumbers a mutable disc first. A validator is immutable and shareable between threads, not the discs.
+ */
+@Getter
+public final class CueValidator {
+
+  private final List<CueRule> rules;
+  private final CueWriteOptions options;
+  private final boolean failFast;
+  private final Executor executor;
+
+
+  private CueValidator(List<CueRule> rules, CueWriteOptions options, boolean failFast, Executor executor) {
+    this.rules = rules;
+    this.options = options;
+    this.failFast = failFast;
+    this.executor = executor;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+
+  public CueIssues validate(@NonNull CueDisc disc) {
+    disc.prepareChecking();
+
+    var issues = new CueIssues();
+    int i = 0;
+    while (i < rules.size()) {
+      CueRule rule = rules.get(i);
+      if(rule.getScope() == CueRule.Scope.FILE) {
+        int end = i + 1;
+        while (end < rules.size() && rules.get(end).getScope() == CueRule.Scope.FILE) {
+          end++;
+        }
+        checkFiles(disc.getFiles(), rules.subList(i, end), issues);
+        i = end;
+      } else {
+        rule.checkDisc(disc, options, issues);
+        i++;
+      }
+      if(failFast && !issues.isEmpty()) {
+        return firstOf(issues);
+      }
+    }
+    return issues;
+  }
+
+  private void checkFiles(List<CueFile> files, List<CueRule> fileRules, CueIssues issues) {
+    if(executor == null) {
+      for (CueFile file : files) {
+        checkFile(file, fileRules, issues);
+        if(failFast && !issues.isEmpty()) {
+          return;
+        }
+      }
+    } else {
+      List<CompletableFuture<CueIssues>> futures = new ArrayList<>(files.size());
+      for (CueFile file : files) {
+        futures.add(CompletableFuture.supplyAsync(() -> {
+          var fileIssues = new CueIssues();
+          checkFile(file, fileRules, fileIssues);
+          return fileIssues;
+        }, executor));
+      }
+      try {
+        for (CompletableFuture<CueIssues> future : futures) {
+          issues.addAll(future.join());
+          if(failFast && !issues.isEmpty()) {
+            return;
+          }
+        }
+      } catch (CompletionException e) {
+        throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+      } finally {
+        futures.forEach(future -> future.cancel(false)); // no-op on the completed ones
+      }
+    }
+  }
+
+  private void checkFile(CueFile file, List<CueRule> fileRules, CueIssues issues) {
+    for (CueRule rule : fileRules) {
+      rule.checkFile(file, options, issues);
+      if(failFast && !issues.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  private static CueIssues firstOf(CueIssues issues) {
+    CueIssues.Entry first = issues.iterator().next();
+    var firstIssues = new CueIssues();
+    firstIssues.add(first.getMessage(), first.getThrowable());
+    return firstIssues;
+  }
+
+
+  public static class Builder {
+    private List<CueRule> rules = List.of(CueStandardRule.values());
+    private CueWriteOptions options;
+    private boolean failFast;
+    private Executor executor;
+
+
+    /**
+     * Defaults to all the standard rules
+     */
+    public Builder rules(CueRule... rules) {
+      return rules(Arrays.asList(rules));
+    }
+
+    public Builder rules(@NonNull Collection<? extends CueRule> rules) {
+      this.rules = List.copyOf(rules);
+      return this;
+    }
+
+    /**
+     * Defaults to {@link CueWriteOptions#defaults()}
+     */
+    public Builder options(CueWriteOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    public Builder failFast(boolean failFast) {
+      this.failFast = failFast;
+      return this;
+    }
+
+    /**
+     * To check the files in parallel, defaults to none, checking them on the calling thread
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public CueValidator build() {
+      List<CueRule> sortedRules = new ArrayList<>(rules);
+      sortedRules.sort(Comparator.comparingInt(CueRule::getCost)); // stable
+      return new CueValidator(
+          List.copyOf(sortedRules),
+          options != null ? options : CueWriteOptions.defaults(),
+          failFast, executor);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+/**
+ * What a {@link CueVisitor} wants the traversal to do next
+ */
+public enum CueVisitResult {
+  CONTINUE,
+  SKIP_CHILDREN, // goes on with the next sibling, skipping a disc's files, a file's tracks or a track's indexes
+  TERMINATE
+}
@@ -0,0 +1,34 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+/**
+ * Walks a disc, its files, their tracks and their indexes in sheet order through the entities' accept methods.
+ * The traversal itself allocates nothing, unlike getTracks() or getIndexes().
+ * Every method returns CONTINUE by default, so that one only overrides what one needs.
+ */
+public interface CueVisitor {
+
+  default CueVisitResult visitDisc(CueDisc disc) {
+    return CueVisitResult.CONTINUE;
+  }
+
+  default CueVisitResult visitFile(CueFile file) {
+    return CueVisitResult.CONTINUE;
+  }
+
+  default CueVisitResult visitTrack(CueTrack track) {
+    return CueVisitResult.CONTINUE;
+  }
+
+  default CueVisitResult visitIndex(CueIndex index) {
+    return CueVisitResult.CONTINUE;
+  }
+}
@@ -50,14 +50,21 @@ public final class CueWriteOptions {
    */
   private final Long burningLimit;
 
+  /**
+   * Renders the sheet in memory first, and only replaces the target file if its content differs, atomically.
+   * An existing file with the same content is left untouched, even if overwrite is false.
+   */
+  private final boolean writeIfChanged;
 
-  private CueWriteOptions(boolean overwrite, boolean noTrackAllowed, boolean fullPaths, Duration minTrackDuration, boolean orderedTimeCodes, Long burningLimit) {
+
+  private CueWriteOptions(boolean overwrite, boolean noTrackAllowed, boolean fullPaths, Duration minTrackDuration, boolean orderedTimeCodes, Long burningLimit, boolean writeIfChanged) {
     this.overwrite = overwrite;
     this.noTrackAllowed = noTrackAllowed;
     this.fullPaths = fullPaths;
     this.minTrackDuration = minTrackDuration;
     this.orderedTimeCodes = orderedTimeCodes;
     this.burningLimit = burningLimit;
+    this.writeIfChanged = writeIfChanged;
   }
 
   /**
@@ -85,6 +92,7 @@ public final class CueWriteOptions {
     private Duration minTrackDuration;
     private boolean orderedTimeCodes;
     private Long burningLimit;
+    private boolean writeIfChanged;
 
 
     public Builder overwrite(boolean overwrite) {
@@ -131,8 +139,17 @@ public final class CueWriteOptions {
             .burningLimit(burningLimit);
     }
 
+    /**
+     * Leaves a file with the same content untouched, else replaces it whole through a temp file.
+     * The replacement keeps the POSIX permissions, but not the owner nor the ACLs.
+     */
+    public Builder writeIfChanged(boolean writeIfChanged) {
+      this.writeIfChanged = writeIfChanged;
+      return this;
+    }
+
     public CueWriteOptions build() {
-      return new CueWriteOptions(overwrite, noTrackAllowed, fullPaths, minTrackDuration, orderedTimeCodes, burningLimit);
+      return new CueWriteOptions(overwrite, noTrackAllowed, fullPaths, minTrackDuration, orderedTimeCodes, burningLimit, writeIfChanged);
     }
   }
 }
@@ -0,0 +1,157 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte scan settling the common cases before resorting to ICU:
+ * - pure ASCII text (printable, tabs and line breaks): ISO-8859-1, which is what ICU reports for such text,
+ * - strict UTF-8 with more than 3 multibyte sequences: UTF-8, which ICU reports with a 100 confidence in that case.
+ * Anything else (legacy encodings, control bytes, NULs that may denote UTF-16, too few multibyte sequences, empty input) is left to ICU.
+ */
+final class FastCharsetDetector {
+
+  static final int SAMPLE_LENGTH = 8000; // what ICU samples from a stream
+
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long SPACES = 0x2020202020202020L;
+  private static final long ONES = 0x0101010101010101L;
+  private static final long DELS = 0x7F7F7F7F7F7F7F7FL;
+  private static final int MIN_MULTIBYTE_SEQUENCES = 4;
+
+  private FastCharsetDetector() {}
+
+  /**
+   * @param partial true if the bytes are a sample cut from a longer content, so that a sequence cut at the end isn't deemed invalid
+   * @return the charset, or null if undecided
+   */
+  static Charset detect(byte[] bytes, int from, int to, boolean partial) {
+    int nonAscii = skipAscii(bytes, from, to);
+    if (nonAscii == to) {
+      return (to > from) ? StandardCharsets.ISO_8859_1 : null;
+    }
+    return countUtf8Sequences(bytes, nonAscii, to, partial) >= MIN_MULTIBYTE_SEQUENCES ? StandardCharsets.UTF_8 : null;
+  }
+
+  /**
+   * Eight bytes at a time, as long as there's neither a high bit, a control byte nor DEL.
+   * A word holding allowed control bytes (tabs, line breaks) is checked byte per byte, then the word scan resumes.
+   * @return the index of the first byte which isn't ASCII text, else to
+   */
+  static int skipAscii(byte[] bytes, int from, int to) {
+    ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    int i = from;
+    while (true) {
+      while (i + Long.BYTES <= to && isAsciiTextWord(words.getLong(i))) {
+        i += Long.BYTES;
+      }
+      int end = Math.min(i + Long.BYTES, to); // the word which stopped the scan, or the tail
+      for (; i < end; i++) {
+        if (!isAsciiText(bytes[i])) {
+          return i;
+        }
+      }
+      if (i == to) {
+        return i;
+      }
+    }
+  }
+
+  private static boolean isAsciiTextWord(long word) {
+    long dels = word ^ DELS; // zero where there's a DEL
+    return (word & HIGH_BITS) == 0 // ASCII
+        && ((word - SPACES) & ~word & HIGH_BITS) == 0 // no byte < 0x20
+        && ((dels - ONES) & ~dels & HIGH_BITS) == 0; // no DEL
+  }
+
+  private static boolean isAsciiText(byte b) {
+    return (b >= 0x20 && b < 0x7F) || b == '\t' || b == '\n' || b == '\r';
+  }
+
+  /**
+   * Strict validation: no overlong forms, no surrogates, nothing above U+10FFFF. NUL is deemed invalid too.
+   * @return the number of multibyte sequences, -1 if invalid
+   */
+  static int countUtf8Sequences(byte[] bytes, int from, int to, boolean partial) {
+    int sequences = 0;
+    int i = from;
+    while (i < to) {
+      int b = bytes[i] & 0xFF;
+      if (b < 0x80) {
+        if (b == 0) {
+          return -1;
+        }
+        i++;
+        continue;
+      }
+
+      int length;
+      int min = 0x80;
+      int max = 0xBF; // bounds of the second byte
+      if (b >= 0xC2 && b <= 0xDF) {
+        length = 2;
+      } else if (b >= 0xE0 && b <= 0xEF) {
+        length = 3;
+        if (b == 0xE0) {
+          min = 0xA0; // overlong
+        } else if (b == 0xED) {
+          max = 0x9F; // surrogates
+        }
+      } else if (b >= 0xF0 && b <= 0xF4) {
+        length = 4;
+        if (b == 0xF0) {
+          min = 0x90; // overlong
+        } else if (b == 0xF4) {
+          max = 0x8F; // > U+10FFFF
+        }
+      } else {
+        return -1;
+      }
+
+      if (i + length > to) {
+        return partial ? checkTail(bytes, i + 1, to, min, max, sequences) : -1;
+      }
+      int second = bytes[i + 1] & 0xFF;
+      if (second < min || second > max) {
+        return -1;
+      }
+      for (int j = i + 2; j < i + length; j++) {
+        if ((bytes[j] & 0xC0) != 0x80) {
+          return -1;
+        }
+      }
+      sequences++;
+      i += length;
+    }
+    return sequences;
+  }
+
+  /**
+   * A sequence cut by the end of a sample is valid as long as the bytes there are
+   */
+  private static int checkTail(byte[] bytes, int from, int to, int min, int max, int sequences) {
+    if (from < to) {
+      int second = bytes[from] & 0xFF;
+      if (second < min || second > max) {
+        return -1;
+      }
+    }
+    for (int j = from + 1; j < to; j++) {
+      if ((bytes[j] & 0xC0) != 0x80) {
+        return -1;
+      }
+    }
+    return sequences;
+  }
+}
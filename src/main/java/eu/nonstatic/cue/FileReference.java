@@ -10,7 +10,6 @@
 package eu.nonstatic.cue;
 
 import static eu.nonstatic.cue.CueTools.getExt;
-import static eu.nonstatic.cue.CueTools.isCaseInsensitiveFileSystem;
 import static eu.nonstatic.cue.SizeAndDuration.getCompactDiscBytesFrom;
 
 import eu.nonstatic.audio.AudioInfo;
@@ -29,6 +28,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
@@ -41,8 +42,8 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Getter
-@EqualsAndHashCode(exclude = "sizeAndDuration") // null-safe
-@ToString
+@EqualsAndHashCode(exclude = {"sizeAndDuration", "pendingProbe", "probeSource"}) // null-safe
+@ToString(doNotUseGetters = true) // must not trigger a lazy probe
 class FileReference implements FileReferable {
 
   private static final Map<String, FileType> AUDIO_TYPES = new HashMap<>(); // allows get(null)
@@ -59,6 +60,12 @@ class FileReference implements FileReferable {
   protected final String file; // might be a filename, if the file in the same dir as the cuesheet, or may be a path
   protected final FileType type; // MP3, AIFF, WAVE, BIN, MOTOROLA
   protected SizeAndDuration sizeAndDuration;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  private PendingProbe pendingProbe; // set until the lazy SizeAndDuration is probed
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  private FileReference probeSource; // the reference whose pending probe this copy takes its SizeAndDuration from
 
   /**
    * Simple ctor when we know only the bare minimum
@@ -86,17 +93,60 @@ class FileReference implements FileReferable {
   }
 
   public FileReference(Path file, FileType type, CueSheetContext context) throws IOException {
-    this(file.toString(), type, sizeAndDurationOf(file, type, context));
+    this(file.toString(), type, context.getOptions().isLazySizeAndDuration() ? null : sizeAndDurationOf(file, type, context));
+    if(context.getOptions().isLazySizeAndDuration()) {
+      this.pendingProbe = new PendingProbe(file, context);
+    }
+  }
+
+  @AllArgsConstructor
+  private static final class PendingProbe {
+    private final Path file; // as resolved while reading, on the sheet's file system
+    private final CueSheetContext context;
+  }
+
+  /**
+   * Probes the file on first call when the reading options asked for lazy probing, from whichever thread calls it.
+   * Issues go to the context the sheet was read with, not to the ones copied from it before the probe. IO errors too,
+   * since they can't be thrown from here. The directory listings of the read are stale by now, so they're not reused.
+   */
+  @Override
+  public synchronized SizeAndDuration getSizeAndDuration() {
+    if(pendingProbe != null) {
+      PendingProbe probe = pendingProbe;
+      pendingProbe = null;
+      try {
+        sizeAndDuration = sizeAndDurationOf(probe.file, type, probe.context, new FileResolver());
+      } catch (IOException e) {
+        probe.context.addIssue(e);
+      }
+    } else if(probeSource != null) { // locks copy then source, never the other way round
+      sizeAndDuration = probeSource.getSizeAndDuration();
+      probeSource = null;
+    }
+    return sizeAndDuration;
   }
 
-  public void setSizeAndDuration(SizeAndDuration sizeAndDuration) {
+  public synchronized void setSizeAndDuration(SizeAndDuration sizeAndDuration) {
     if(sizeAndDuration != null && sizeAndDuration.duration == null && type.isAudio()) {
       throw new IllegalArgumentException("Duration must be provided for audio types");
     } else {
       this.sizeAndDuration = sizeAndDuration;
+      this.pendingProbe = null;
+      this.probeSource = null;
     }
   }
 
+  /**
+   * @return a reference of its own, which can be changed without altering this one, but sharing a pending lazy probe
+   * with it so that the file is probed once still
+   */
+  synchronized FileReference ownCopy() {
+    FileReference copy = new FileReference(file, type, sizeAndDuration);
+    copy.probeSource = (pendingProbe != null) ? this : probeSource;
+    return copy;
+  }
+
 
   public static FileType getTypeByFileName(String fileName) {
     String ext = getExt(fileName);
@@ -116,6 +166,10 @@ class FileReference implements FileReferable {
   }
 
   public static SizeAndDuration sizeAndDurationOf(Path file, FileType type, CueSheetContext context) throws IOException {
+    return sizeAndDurationOf(file, type, context, context.getFileResolver());
+  }
+
+  private static SizeAndDuration sizeAndDurationOf(Path file, FileType type, CueSheetContext context, FileResolver fileResolver) throws IOException {
     CueOptions options = context.getOptions();
 
     AudioInfoSupplier<?> audioInfoSupplier;
@@ -126,7 +180,7 @@ class FileReference implements FileReferable {
       return null;
     }
 
-    if(!checkFileExists(file, context)) {
+    if(!checkFileExists(file, context, fileResolver)) {
       return null;
     }
 
@@ -154,35 +208,26 @@ class FileReference implements FileReferable {
     return null;
   }
 
-  private static boolean checkFileExists(Path file, CueSheetContext context) throws IOException {
+  private static boolean checkFileExists(Path file, CueSheetContext context, FileResolver fileResolver) throws IOException {
     CueOptions options = context.getOptions();
-    // Case where the cue sheet references a file that has a different case on the file system. Windows will find it, not a Posix OS.
-    if(isCaseInsensitiveFileSystem(file.getFileSystem())) {
-      try {
-        if(!file.toRealPath().getFileName().toString().equals(file.getFileName().toString())) { // file exists but has a different case on the file system
-          String message = String.format("File exists, with a different case: %s", file);
-          if(options.isFileLeniency()) {
-            context.addIssue(message);
-          } else {
-            throw new IOException(message);
-          }
-        }
-      } catch (IOException e) { // File not found obviously
+    try {
+      // Case where the cue sheet references a file that has a different case on the file system. Windows will find it, not a Posix OS.
+      String actualName = fileResolver.resolveName(file);
+      if(!actualName.equals(file.getFileName().toString())) { // file exists but has a different case on the file system
+        String message = String.format("File exists, with a different case: %s", file);
         if(options.isFileLeniency()) {
-          context.addIssue(e);
-          return false;
+          context.addIssue(message);
         } else {
-          throw e;
+          throw new IOException(message);
         }
       }
-    } else if(!Files.exists(file)) {
-      NoSuchFileException e = new NoSuchFileException(file.toString());
+    } catch (NoSuchFileException e) {
       if(options.isFileLeniency()) {
         context.addIssue(e);
+        return false;
       } else {
         throw e;
       }
-      return false;
     }
     return true;
   }
@@ -0,0 +1,118 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells whether the files referenced by a sheet exist, and under which name.
+ * Each directory is listed once, then the names are looked up in memory, instead of hitting the file system for every file.
+ * A file system's case sensitivity is only checked once per resolver, once and for all for the default file system.
+ * The listing isn't refreshed: a resolver is meant to live as long as the reading of a sheet.
+ */
+class FileResolver {
+
+  private static volatile Boolean defaultCaseInsensitive; // other file systems may be closed, they're not kept here
+
+  private final Map<FileSystem, Boolean> caseInsensitiveFileSystems = new ConcurrentHashMap<>();
+  private final Map<Path, Optional<Map<String, String>>> directories = new ConcurrentHashMap<>();
+
+  /**
+   * @return the name of the file as found in its directory, which may differ in case from the given one on a case-insensitive file system
+   * @throws NoSuchFileException when the file doesn't exist
+   */
+  String resolveName(Path file) throws NoSuchFileException {
+    FileSystem fs = file.getFileSystem();
+    boolean caseInsensitive = isCaseInsensitive(fs);
+    String name = file.getFileName().toString();
+
+    Path dir = file.toAbsolutePath().getParent();
+    Optional<Map<String, String>> names = (dir != null) ? listing(dir, caseInsensitive) : Optional.empty();
+    String actualName;
+    if (names.isPresent()) {
+      actualName = names.get().get(caseInsensitive ? toKey(name) : name);
+    } else { // cannot list, let's ask for that file only
+      actualName = resolveNameUnlisted(file, caseInsensitive);
+    }
+
+    if (actualName == null) {
+      throw new NoSuchFileException(file.toString());
+    }
+    return actualName;
+  }
+
+  private boolean isCaseInsensitive(FileSystem fs) {
+    if (fs != FileSystems.getDefault()) {
+      return caseInsensitiveFileSystems.computeIfAbsent(fs, CueTools::isCaseInsensitiveFileSystem);
+    }
+    Boolean caseInsensitive = defaultCaseInsensitive;
+    if (caseInsensitive == null) { // racing threads would find the same anyway
+      caseInsensitive = CueTools.isCaseInsensitiveFileSystem(fs);
+      defaultCaseInsensitive = caseInsensitive;
+    }
+    return caseInsensitive;
+  }
+
+  /**
+   * @return empty if the directory cannot be listed
+   */
+  private Optional<Map<String, String>> listing(Path dir, boolean caseInsensitive) {
+    return directories.computeIfAbsent(dir, d -> {
+      try {
+        return Optional.of(list(d, caseInsensitive));
+      } catch (NoSuchFileException e) { // then no file in there either
+        return Optional.of(Map.of());
+      } catch (IOException e) {
+        return Optional.empty();
+      }
+    });
+  }
+
+  /**
+   * @return file names, by lower-cased name on a case-insensitive file system
+   */
+  private static Map<String, String> list(Path dir, boolean caseInsensitive) throws IOException {
+    Map<String, String> names = new HashMap<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+      for (Path entry : entries) {
+        String name = entry.getFileName().toString();
+        names.put(caseInsensitive ? toKey(name) : name, name);
+      }
+    }
+    return names;
+  }
+
+  private static String resolveNameUnlisted(Path file, boolean caseInsensitive) {
+    try {
+      if (caseInsensitive) {
+        return file.toRealPath().getFileName().toString();
+      } else {
+        return Files.exists(file) ? file.getFileName().toString() : null;
+      }
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static String toKey(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
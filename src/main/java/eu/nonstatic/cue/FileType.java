@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**²
@@ -42,6 +43,7 @@ public interface FileType {
   }
 
 
+  @EqualsAndHashCode
   final class Data implements FileType {
     public static final Data BINARY = new Data("BINARY"); // raw little endian
     public static final Data MOTOROLA = new Data("MOTOROLA"); // raw big endian
@@ -70,6 +72,7 @@ public interface FileType {
   }
 
 
+  @EqualsAndHashCode
   final class Audio implements FileType {
     public static final Audio AIFF = new Audio("AIFF");
     public static final Audio WAVE = new Audio("WAVE");
@@ -9,6 +9,8 @@
  */
 package eu.nonstatic.cue;
 
+import java.util.List;
+
 /**
  * Copied from https://www.gnu.org/software/ccd2cue/manual/html_node/MODE-_0028Compact-Disc-fields_0029.html#MODE-_0028Compact-Disc-fields_0029
  * The modes marked with ‘*’ are not defined in the original CUE sheet format specification.
@@ -26,5 +28,7 @@ public class TrackType {
   public static final String CDI_2336 = "CDI/2336";	// CDI Mode 2 Data
   public static final String CDI_2352 = "CDI/2352";	// CDI Mode 2 Data
 
+  public static final List<String> ALL = List.of(AUDIO, CDG, MODE1_2048, MODE1_2352, MODE2_2048, MODE2_2324, MODE2_2336, MODE2_2352, CDI_2336, CDI_2352);
+
   private TrackType() {}
 }
@@ -0,0 +1,223 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class CachingCueSheetReaderTest extends CueTestBase {
+
+  private static Path writeSheet(Path dir, String name, String title) throws IOException {
+    return Files.writeString(dir.resolve(name), "TITLE \"" + title + "\"\nREM COMMENT \"Some comment\"\n", StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void should_not_build_with_bad_bounds() {
+    CachingCueSheetReader.Builder builder = CachingCueSheetReader.builder().maxEntries(0);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  void should_hand_out_copies() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      CachingCueSheetReader cache = CachingCueSheetReader.defaults();
+
+      CueSheetReadout readout1 = cache.readCueSheet(cueFile);
+      readout1.getDisc().setTitle("Changed");
+      readout1.getDisc().clearRemarks();
+      readout1.getContext().addIssue("Some issue");
+
+      CueSheetReadout readout2 = cache.readCueSheet(root.resolve("./disc.cue"));
+      assertNotSame(readout1.getDisc(), readout2.getDisc());
+      assertEquals("Disc", readout2.getDisc().getTitle());
+      assertEquals(1, readout2.getDisc().getRemarks().size());
+      assertEquals(0, readout2.getIssues().size());
+      assertEquals(StandardCharsets.ISO_8859_1, readout2.getContext().getCharset()); // pure ASCII
+
+      assertEquals(1, cache.getMissCount());
+      assertEquals(1, cache.getHitCount());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_not_share_sizes_between_copies() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Files.write(root.resolve("data.bin"), new byte[2352]);
+      Path cueFile = Files.writeString(root.resolve("disc.cue"), "FILE \"data.bin\" BINARY\n  TRACK 01 MODE1/2352\n    INDEX 01 00:00:00\n");
+      for (boolean lazy : new boolean[]{false, true}) {
+        CachingCueSheetReader cache = CachingCueSheetReader.builder()
+            .options(CueOptions.builder().lazySizeAndDuration(lazy).build())
+            .build();
+
+        CueSheetReadout readout1 = cache.readCueSheet(cueFile);
+        CueSheetReadout readout2 = cache.readCueSheet(cueFile);
+        readout1.getDisc().getFirstFile().setSizeAndDuration(new SizeAndDuration(4704));
+        assertEquals(2352L, readout2.getDisc().getFirstFile().getSizeAndDuration().size);
+        assertEquals(2352L, cache.readCueSheet(cueFile).getDisc().getFirstFile().getSizeAndDuration().size);
+        assertEquals(1, cache.getMissCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_report_lazy_probe_issues_on_later_copies() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile = Files.writeString(root.resolve("disc.cue"), "FILE \"missing.wav\" WAVE\n  TRACK 01 AUDIO\n    INDEX 01 00:00:00\n");
+      CachingCueSheetReader cache = CachingCueSheetReader.builder()
+          .options(CueOptions.builder().lazySizeAndDuration(true).build())
+          .build();
+
+      CueSheetReadout readout1 = cache.readCueSheet(cueFile);
+      assertNull(readout1.getDisc().getFirstFile().getSizeAndDuration()); // probed now
+      assertEquals(0, readout1.getIssues().size());
+      assertEquals(1, cache.readCueSheet(cueFile).getIssues().size());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_reload_changed_sheet() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      FileTime lastModifiedTime = Files.getLastModifiedTime(cueFile);
+      CachingCueSheetReader cache = CachingCueSheetReader.defaults();
+      assertEquals("Disc", cache.readCueSheet(cueFile).getDisc().getTitle());
+
+      writeSheet(root, "disc.cue", "Other disc"); // other size
+      Files.setLastModifiedTime(cueFile, lastModifiedTime);
+      assertEquals("Other disc", cache.readCueSheet(cueFile).getDisc().getTitle());
+
+      writeSheet(root, "disc.cue", "Other dist"); // same size, other time
+      Files.setLastModifiedTime(cueFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 10_000));
+      assertEquals("Other dist", cache.readCueSheet(cueFile).getDisc().getTitle());
+      assertEquals(3, cache.getMissCount());
+
+      cache.invalidate(cueFile);
+      cache.readCueSheet(cueFile);
+      assertEquals(4, cache.getMissCount());
+      assertEquals(0, cache.getHitCount());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_reload_on_content_hash() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      FileTime lastModifiedTime = Files.getLastModifiedTime(cueFile);
+      CachingCueSheetReader cache = CachingCueSheetReader.builder().contentHash(true).build();
+      cache.readCueSheet(cueFile);
+
+      writeSheet(root, "disc.cue", "Dusc"); // same size, same time
+      Files.setLastModifiedTime(cueFile, lastModifiedTime);
+      assertEquals("Dusc", cache.readCueSheet(cueFile).getDisc().getTitle());
+
+      Files.setLastModifiedTime(cueFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 10_000)); // touched only
+      assertEquals("Dusc", cache.readCueSheet(cueFile).getDisc().getTitle());
+      assertEquals(2, cache.getMissCount());
+      assertEquals(1, cache.getHitCount());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_evict_least_recently_read() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile1 = writeSheet(root, "disc1.cue", "Disc 1");
+      Path cueFile2 = writeSheet(root, "disc2.cue", "Disc 2");
+      Path cueFile3 = writeSheet(root, "disc3.cue", "Disc 3");
+      CachingCueSheetReader cache = CachingCueSheetReader.builder().maxEntries(2).build();
+
+      cache.readCueSheet(cueFile1);
+      cache.readCueSheet(cueFile2);
+      cache.readCueSheet(cueFile1); // disc2 is now the eldest
+      cache.readCueSheet(cueFile3);
+      assertEquals(2, cache.size());
+      assertEquals(1, cache.getEvictionCount());
+
+      cache.readCueSheet(cueFile1);
+      assertEquals(2, cache.getHitCount());
+      cache.readCueSheet(cueFile2);
+      assertEquals(4, cache.getMissCount());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_not_cache_failures() throws IOException {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      CachingCueSheetReader cache = CachingCueSheetReader.defaults();
+      Path cueFile = root.resolve("missing.cue");
+      assertThrows(NoSuchFileException.class, () -> cache.readCueSheet(cueFile));
+      assertEquals(0, cache.size());
+
+      writeSheet(root, "missing.cue", "Found");
+      assertEquals("Found", cache.readCueSheet(cueFile).getDisc().getTitle());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_load_once_under_concurrency() throws Exception {
+    Path root = Files.createTempDirectory("caching_cue_sheet_reader");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      CachingCueSheetReader cache = CachingCueSheetReader.defaults();
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+        List<Future<CueSheetReadout>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          futures.add(executor.submit(() -> cache.readCueSheet(cueFile)));
+        }
+        for (Future<CueSheetReadout> future : futures) {
+          assertEquals("Disc", future.get().getDisc().getTitle());
+        }
+      } finally {
+        executor.shutdown();
+      }
+      assertEquals(1, cache.getMissCount());
+      assertEquals(99, cache.getHitCount());
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+}
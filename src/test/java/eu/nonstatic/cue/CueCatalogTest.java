@@ -0,0 +1,347 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+
+class CueCatalogTest extends CueTestBase {
+
+  CueSheetReader reader = new CueSheetReader();
+  CueOptions options = CueOptions.builder().fileLeniency(true).build(); // the sheets refer to a missing file
+
+  private static Path writeSheet(Path dir, String name, String title) throws IOException {
+    return writeSheet(dir, name, title, "missing.wav");
+  }
+
+  private static Path writeSheet(Path dir, String name, String title, String file) throws IOException {
+    return Files.writeString(dir.resolve(name), "TITLE \"" + title + "\"\nFILE \"" + file + "\" WAVE\n  TRACK 01 AUDIO\n    INDEX 01 00:00:00\n", StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void should_serve_unchanged_sheets_after_reopening() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile1 = writeSheet(root, "disc1.cue", "Disc 1");
+      Path cueFile2 = writeSheet(root, "disc2.cue", "Disc 2");
+
+      CueSheetReadout read;
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        read = catalog.readCueSheet(cueFile1, reader, options);
+        catalog.readCueSheet(cueFile2, reader, options);
+        CueSheetReadout served = catalog.readCueSheet(cueFile1, reader, options); // from the file
+        assertEquals(read.getDisc(), served.getDisc());
+        assertEquals(2, catalog.getMissCount());
+        assertEquals(1, catalog.getHitCount());
+      }
+
+      writeSheet(root, "disc2.cue", "Disc 2, remastered");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        assertEquals(2, catalog.size());
+        CueSheetReadout served = catalog.readCueSheet(cueFile1, reader, options);
+        assertEquals(read.getDisc(), served.getDisc());
+        assertEquals(read.getContext().getCharset(), served.getContext().getCharset());
+        assertEquals(read.getContext().getCharsetOrigin(), served.getContext().getCharsetOrigin());
+        assertEquals(1, served.getIssues().size()); // the missing file
+        assertEquals(read.getIssues().get(0).getMessage(), served.getIssues().get(0).getMessage());
+
+        assertEquals("Disc 2, remastered", catalog.readCueSheet(cueFile2, reader, options).getDisc().getTitle());
+        assertEquals(1, catalog.getHitCount());
+        assertEquals(1, catalog.getMissCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_serve_touched_sheet_on_hash() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile, reader, options);
+
+        FileTime lastModifiedTime = Files.getLastModifiedTime(cueFile);
+        Files.setLastModifiedTime(cueFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 10_000));
+        catalog.readCueSheet(cueFile, reader, options);
+        assertEquals(1, catalog.getHitCount());
+
+        writeSheet(root, "disc.cue", "Dusc"); // same size, other time
+        Files.setLastModifiedTime(cueFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 20_000));
+        assertEquals("Dusc", catalog.readCueSheet(cueFile, reader, options).getDisc().getTitle());
+        assertEquals(2, catalog.getMissCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_drop_incomplete_record() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile1 = writeSheet(root, "disc1.cue", "Disc 1");
+      Path cueFile2 = writeSheet(root, "disc2.cue", "Disc 2");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile1, reader, options);
+      }
+      long sizeWithOne = Files.size(catalogFile);
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile2, reader, options);
+      }
+
+      byte[] bytes = Files.readAllBytes(catalogFile);
+      Files.write(catalogFile, Arrays.copyOf(bytes, bytes.length - 3)); // torn write
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        assertEquals(1, catalog.size());
+        assertEquals(sizeWithOne, Files.size(catalogFile));
+        catalog.readCueSheet(cueFile1, reader, options);
+        assertEquals(1, catalog.getHitCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_read_again_undecodable_record() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile, reader, options);
+      }
+
+      byte[] bytes = Files.readAllBytes(catalogFile);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      int magic = 8;
+      while (buffer.getInt(magic) != CueDiscCodec.MAGIC) {
+        magic++;
+      }
+      buffer.putInt(magic, 0); // whole record, undecodable disc
+      Files.write(catalogFile, withBodyCrc(bytes, 8));
+
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        assertEquals("Disc", catalog.readCueSheet(cueFile, reader, options).getDisc().getTitle());
+        assertEquals(1, catalog.getMissCount());
+        catalog.readCueSheet(cueFile, reader, options); // from the new record
+        assertEquals(1, catalog.getHitCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_skip_malformed_record() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile1 = writeSheet(root, "disc1.cue", "Disc 1");
+      Path cueFile2 = writeSheet(root, "disc2.cue", "Disc 2");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile1, reader, options);
+        catalog.readCueSheet(cueFile2, reader, options);
+      }
+
+      byte[] bytes = Files.readAllBytes(catalogFile);
+      ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE); // first record's path length
+      Files.write(catalogFile, withBodyCrc(bytes, 8));
+
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        assertEquals(1, catalog.size());
+        catalog.readCueSheet(cueFile2, reader, options);
+        assertEquals(1, catalog.getHitCount());
+        catalog.readCueSheet(cueFile1, reader, options);
+        assertEquals(1, catalog.getMissCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  /**
+   * Makes a tampered record whole again
+   */
+  private static byte[] withBodyCrc(byte[] bytes, int recordStart) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    int length = buffer.getInt(recordStart);
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes, recordStart + 8, length);
+    buffer.putInt(recordStart + 4, (int) crc32.getValue());
+    return bytes;
+  }
+
+  @Test
+  void should_record_once_under_concurrency() throws Exception {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+          List<Future<CueSheetReadout>> futures = new ArrayList<>();
+          for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> catalog.readCueSheet(cueFile, reader, options)));
+          }
+          for (Future<CueSheetReadout> future : futures) {
+            assertEquals("Disc", future.get().getDisc().getTitle());
+          }
+        } finally {
+          executor.shutdown();
+        }
+        assertEquals(1, catalog.getMissCount());
+        assertEquals(99, catalog.getHitCount());
+        long size = Files.size(catalogFile);
+        catalog.compact();
+        assertEquals(size, Files.size(catalogFile)); // a single record
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_reject_other_file() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    try {
+      Path other = Files.writeString(root.resolve("other.bin"), "Not a catalog");
+      assertThrows(IOException.class, () -> CueCatalog.open(other));
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_compact() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile1 = writeSheet(root, "disc1.cue", "Disc 1");
+      Path cueFile2 = writeSheet(root, "disc2.cue", "Disc 2");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile2, reader, options);
+        for (int i = 0; i < 10; i++) {
+          writeSheet(root, "disc1.cue", "Disc 1, take " + "!".repeat(i)); // size changes, whatever the mtime granularity
+          catalog.readCueSheet(cueFile1, reader, options);
+        }
+        CueSheetReadout beforeCompaction = catalog.readCueSheet(cueFile1, reader, options);
+        Files.delete(cueFile2);
+        long size = Files.size(catalogFile);
+
+        catalog.compact();
+        assertEquals(1, catalog.size());
+        assertTrue(Files.size(catalogFile) < size / 5);
+        assertEquals(beforeCompaction.getDisc(), catalog.readCueSheet(cueFile1, reader, options).getDisc());
+        assertEquals(2, catalog.getHitCount());
+      }
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        assertEquals(1, catalog.size());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_refresh_library_incrementally() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      for (int i = 0; i < 10; i++) {
+        writeSheet(root, String.format("disc%02d.cue", i), "Disc " + i);
+      }
+
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        CueLibraryScanner.builder().options(options).catalog(catalog).build().scan(root, result -> assertFalse(result.isError()));
+        assertEquals(10, catalog.getMissCount());
+      }
+
+      writeSheet(root, "disc03.cue", "Disc 3, remastered");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        List<String> titles = new ArrayList<>();
+        CueLibraryScanner.builder().options(options).catalog(catalog).build().scan(root, result -> titles.add(result.getReadout().getDisc().getTitle()));
+        assertEquals(1, catalog.getMissCount());
+        assertEquals(9, catalog.getHitCount());
+        assertTrue(titles.contains("Disc 3, remastered"));
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_miss_on_other_options() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      Path cueFile = writeSheet(root, "disc.cue", "Disc");
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        catalog.readCueSheet(cueFile, reader, options);
+        catalog.readCueSheet(cueFile, reader, options.toBuilder().probeExecutor(Runnable::run).build()); // no difference to the readout
+        assertEquals(1, catalog.getHitCount());
+
+        CueOptions strict = CueOptions.builder().build();
+        assertThrows(IOException.class, () -> catalog.readCueSheet(cueFile, reader, strict)); // not served the lenient readout
+        assertEquals(1, catalog.getHitCount());
+        assertEquals(2, catalog.getMissCount());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_probe_lazy_references_before_recording() throws IOException {
+    Path root = Files.createTempDirectory("cue_catalog");
+    Path catalogFile = root.resolve("catalog.bin");
+    try {
+      copyFileContents(WAVE_URL, root, "sample.wav");
+      Path cueFile = writeSheet(root, "disc.cue", "Disc", "sample.wav");
+      CueOptions lazy = CueOptions.builder().lazySizeAndDuration(true).build();
+      try (CueCatalog catalog = CueCatalog.open(catalogFile)) {
+        SizeAndDuration probed = catalog.readCueSheet(cueFile, reader, lazy).getDisc().getFirstFile().getSizeAndDuration();
+        assertNotNull(probed);
+
+        CueSheetReadout served = catalog.readCueSheet(cueFile, reader, lazy);
+        assertEquals(1, catalog.getHitCount());
+        SizeAndDuration decoded = served.getDisc().getFirstFile().getSizeAndDuration();
+        assertEquals(probed.getSize(), decoded.getSize());
+        assertEquals(probed.getDuration(), decoded.getDuration());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+}
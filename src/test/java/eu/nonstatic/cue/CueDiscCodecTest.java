@@ -0,0 +1,161 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.timecode.TimeCode;
+import eu.nonstatic.timecode.TimeCodeRounding;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+
+class CueDiscCodecTest extends CueTestBase {
+
+  @Test
+  void should_round_trip_read_disc() throws IOException {
+    CueDisc disc = new CueSheetReader().readCueSheet(myTestUrl, StandardCharsets.UTF_8).getDisc();
+
+    ByteBuffer encoded = CueDiscCodec.encode(disc);
+    CueDisc decoded = CueDiscCodec.decode(encoded);
+    assertFalse(encoded.hasRemaining());
+    assertEquals(disc, decoded);
+    assertEquals(disc.getTracks(), decoded.getTracks());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream dos = new DataOutputStream(baos)) {
+      CueDiscCodec.encode(disc, dos);
+      CueDiscCodec.encode(decoded, dos); // back to back
+    }
+    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      assertEquals(disc, CueDiscCodec.decode(dis));
+      assertEquals(disc, CueDiscCodec.decode(dis));
+      assertEquals(-1, dis.read());
+    }
+  }
+
+  @Test
+  void should_round_trip_sizes_and_oddities() throws IOException {
+    CueTrack track1 = new CueTrack("AUDIO", "Performer", "Title");
+    track1.setIsrc("NOT AN ISRC", true);
+    track1.setPreGap(new TimeCode(0, 2, 74));
+    track1.addIndex(new CueIndex(CueIndex.INDEX_TRACK_START, new TimeCode(0, 0, 0)));
+    track1.addFlag(CueFlag.SERIAL_COPY_MANAGEMENT_SYSTEM);
+    track1.addFlag(CueFlag.DIGITAL_COPY_PERMITTED);
+    track1.addRemark(new CueRemark("Some comment"));
+    track1.addOther(new CueOther("WHATEVER", null));
+    CueTrack track2 = new CueTrack("AUDIO", "Performer", "Other title");
+    track2.addIndex(new CueIndex(CueIndex.INDEX_TRACK_START, new TimeCode(120, 59, 74)));
+    track2.setPostGap(new TimeCode(0, 0, 0));
+
+    CueFile audio = new CueFile("audio.flac", FileType.Audio.FLAC, track1, track2);
+    audio.setSizeAndDuration(new SizeAndDuration(Duration.ofMinutes(121).plusNanos(123_456_789), TimeCodeRounding.DOWN));
+    CueFile data = new CueFile("data.iso", new FileType.Data("ISO"), new CueTrack("MODE1/2352", new CueIndex(1, 0, 0, 0)));
+    data.setSizeAndDuration(new SizeAndDuration(1234));
+    CueDisc disc = new CueDisc("some/path.cue", StandardCharsets.UTF_16LE, audio, data);
+    disc.setFirstTrackNumber(3);
+    disc.setCatalog("0696969424242");
+
+    CueDisc decoded = CueDiscCodec.decode(CueDiscCodec.encode(disc));
+    assertEquals(disc, decoded);
+    assertEquals(StandardCharsets.UTF_16LE, decoded.getCharset());
+
+    CueTrack decodedTrack = decoded.getFirstTrack();
+    assertEquals(3, decodedTrack.getNumber());
+    assertEquals("NOT AN ISRC", decodedTrack.getIsrc());
+    assertEquals(List.of(CueFlag.SERIAL_COPY_MANAGEMENT_SYSTEM, CueFlag.DIGITAL_COPY_PERMITTED), List.copyOf(decodedTrack.getFlags()));
+    assertNull(decodedTrack.getPostGap());
+
+    List<CueFile> decodedFiles = decoded.getFiles();
+    assertEquals(new TimeCode(0, 0, 0), decodedFiles.get(0).getLastTrack().getPostGap());
+    assertEquals(audio.getSizeAndDuration().getSize(), decodedFiles.get(0).getSizeAndDuration().getSize());
+    assertEquals(audio.getSizeAndDuration().getDuration(), decodedFiles.get(0).getSizeAndDuration().getDuration());
+    assertTrue(decodedFiles.get(1).getType().isData());
+    assertEquals("ISO", decodedFiles.get(1).getType().getValue());
+    assertEquals(1234, decodedFiles.get(1).getSizeAndDuration().getSize());
+    assertNull(decodedFiles.get(1).getSizeAndDuration().getDuration());
+  }
+
+  @Test
+  void should_share_repeated_strings() {
+    String performer = "Some rather long performer name";
+    int sharedSize = CueDiscCodec.encode(discOf(t -> performer)).remaining();
+    int distinctSize = CueDiscCodec.encode(discOf(t -> performer + t)).remaining();
+    assertTrue(distinctSize - sharedSize > 19 * performer.length(), sharedSize + " vs " + distinctSize);
+  }
+
+  private static CueDisc discOf(IntFunction<String> performers) {
+    CueFile file = new CueFile("file.wav", FileType.Audio.WAVE);
+    for (int t = 0; t < 20; t++) {
+      file.addTrack(new CueTrack("AUDIO", performers.apply(t), "Title " + t));
+    }
+    return new CueDisc("path.cue", StandardCharsets.UTF_8, file);
+  }
+
+  @Test
+  void should_reject_bad_input() throws IOException {
+    ByteBuffer encoded = CueDiscCodec.encode(new CueDisc("path.cue", StandardCharsets.UTF_8));
+    byte[] bytes = new byte[encoded.remaining()];
+    encoded.get(bytes);
+
+    byte[] badMagic = bytes.clone();
+    badMagic[0] = 'X';
+    assertThrows(IOException.class, () -> CueDiscCodec.decode(ByteBuffer.wrap(badMagic)));
+
+    byte[] badVersion = bytes.clone();
+    badVersion[4] = 42;
+    assertThrows(IOException.class, () -> CueDiscCodec.decode(ByteBuffer.wrap(badVersion)));
+
+    ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length - 1);
+    assertThrows(IOException.class, () -> CueDiscCodec.decode(truncated));
+    assertThrows(IOException.class, () -> CueDiscCodec.decode(new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 1))));
+  }
+
+  @Test
+  void should_report_corrupted_payload_on_both_paths() throws IOException {
+    ByteBuffer encoded = CueDiscCodec.encode(new CueDisc("path.cue", StandardCharsets.UTF_8));
+    byte[] bytes = new byte[encoded.remaining()];
+    encoded.get(bytes);
+
+    byte[] utf8 = "UTF-8".getBytes(StandardCharsets.US_ASCII);
+    int at = indexOf(bytes, utf8);
+    bytes[at + 3] = '?'; // illegal charset name
+
+    IOException fromBuffer = assertThrows(IOException.class, () -> CueDiscCodec.decode(ByteBuffer.wrap(bytes)));
+    assertEquals("Corrupted encoded disc", fromBuffer.getMessage());
+    IOException fromInput = assertThrows(IOException.class, () -> CueDiscCodec.decode(new DataInputStream(new ByteArrayInputStream(bytes))));
+    assertEquals("Corrupted encoded disc", fromInput.getMessage());
+  }
+
+  private static int indexOf(byte[] bytes, byte[] part) {
+    for (int i = 0; i + part.length <= bytes.length; i++) {
+      int j = 0;
+      while (j < part.length && bytes[i + j] == part[j]) {
+        j++;
+      }
+      if (j == part.length) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("not found");
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CueDiscEditorTest extends CueTestBase {
+
+  private static CueDisc readDisc() throws IOException {
+    return new CueSheetReader().readCueSheet(myTestUrl, StandardCharsets.UTF_8).getDisc();
+  }
+
+  private static List<String> titles(CueDisc disc) {
+    return disc.getTracks().stream().map(CueTrack::getTitle).collect(toList());
+  }
+
+  private static List<String> files(CueDisc disc) {
+    return disc.getFiles().stream().map(file -> file.getFile() + ':' + file.getTrackCount()).collect(toList());
+  }
+
+  @Test
+  void should_edit_like_the_disc() throws IOException {
+    CueDisc expected = readDisc();
+    expected.moveTrackAfter(5, 2);
+    expected.moveTrackBefore(13, 1);
+    expected.removeTrack(7);
+    expected.moveTrackAfter(1, 12);
+
+    CueDisc disc = readDisc();
+    List<CueTrack> tracks = disc.edit()
+        .moveTrackAfter(5, 2)
+        .moveTrackBefore(13, 1)
+        .removeTrack(7)
+        .moveTrackAfter(1, 12)
+        .commit();
+
+    assertEquals(titles(expected), titles(disc));
+    assertEquals(files(expected), files(disc));
+    assertEquals(IntStream.rangeClosed(1, 12).boxed().collect(toList()), tracks.stream().map(CueTrack::getNumber).collect(toList()));
+  }
+
+  @Test
+  void should_reorder_tracks() throws IOException {
+    CueDisc disc = readDisc();
+    CueTrack track13 = disc.getTrack(13);
+    disc.edit().reorderTracks(13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1).commit();
+
+    assertSame(track13, disc.getTrack(1));
+    assertEquals(1, track13.getNumber());
+    assertEquals("Title 1", disc.getLastTrack().getTitle());
+    assertEquals(List.of("some file 1.mp3:4", "some file 2.WAV:5", "some file 1.mp3:4"), files(disc));
+
+    CueDiscEditor editor = disc.edit();
+    assertThrows(IllegalArgumentException.class, () -> editor.reorderTracks(1, 2));
+    assertThrows(IllegalArgumentException.class, () -> editor.reorderTracks(1, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12));
+  }
+
+  @Test
+  void should_insert_tracks_and_files() throws IOException {
+    CueDisc disc = readDisc();
+    CueTrack inserted = new CueTrack(TrackType.AUDIO, "Performer 0", "Title 0");
+    CueFile file = new CueFile("some file 3.flac", FileType.Audio.FLAC, new CueTrack(TrackType.AUDIO, "Performer 14", "Title 14"));
+
+    disc.edit()
+        .insertTrack(1, inserted)
+        .insertFile(15, file)
+        .removeTrack(2)
+        .commit();
+
+    assertEquals("Title 0", disc.getTrack(1).getTitle());
+    assertEquals("Title 14", disc.getTrack(14).getTitle());
+    assertEquals(List.of("some file 1.mp3:4", "some file 2.WAV:5", "some file 1.mp3:4", "some file 3.flac:1"), files(disc));
+    inserted.setTitle("Changed");
+    assertEquals("Title 0", disc.getTrack(1).getTitle()); // copied
+
+    CueDisc empty = new CueDisc();
+    assertThrows(IllegalStateException.class, () -> empty.edit().insertTrack(1, inserted));
+    assertThrows(IllegalArgumentException.class, () -> disc.edit().insertTrack(16, inserted));
+  }
+
+  @Test
+  void should_not_commit_twice_or_after_changes() throws IOException {
+    CueDisc disc = readDisc();
+    CueDiscEditor editor = disc.edit().removeTrack(1);
+    editor.commit();
+    assertEquals(12, disc.getTrackCount());
+    assertThrows(IllegalStateException.class, editor::commit);
+    assertThrows(IllegalStateException.class, () -> editor.removeTrack(1));
+
+    CueDiscEditor editor2 = disc.edit().removeTrack(1);
+    disc.getFirstFile().addTrack(new CueTrack(TrackType.AUDIO));
+    assertThrows(ConcurrentModificationException.class, editor2::commit);
+    assertEquals(13, disc.getTrackCount());
+
+    assertThrows(UnsupportedOperationException.class, () -> disc.freeze().edit());
+  }
+}
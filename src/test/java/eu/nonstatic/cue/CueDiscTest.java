@@ -14,8 +14,10 @@ import static eu.nonstatic.cue.CueFlag.DIGITAL_COPY_PERMITTED;
 import static eu.nonstatic.cue.CueFlag.FOUR_CHANNEL_AUDIO;
 import static eu.nonstatic.cue.CueFlag.SERIAL_COPY_MANAGEMENT_SYSTEM;
 import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,6 +28,8 @@ import eu.nonstatic.cue.FileType.Audio;
 import eu.nonstatic.timecode.TimeCode;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
@@ -464,4 +468,151 @@ class CueDiscTest extends CueTestBase {
     assertSame(track1, movedTrack1);
     assertEquals(1, movedTrack1.getNumber());
   }
+
+  @Test
+  void should_look_up_tracks_across_files() {
+    CueDisc disc = new CueDisc(null, StandardCharsets.UTF_8,
+        new CueFile("file0", FileType.Audio.MP3, new CueTrack(TrackType.AUDIO, "p1", "t1"), new CueTrack(TrackType.AUDIO, "p2", "t2")),
+        new CueFile("file1", FileType.Audio.MP3),
+        new CueFile("file2", FileType.Audio.MP3, new CueTrack(TrackType.AUDIO, "p3", "t3")));
+    assertEquals(3, disc.getTrackCount());
+    assertEquals("t3", disc.getTrack(3).getTitle());
+    assertEquals("t3", disc.getLastTrack().getTitle());
+    assertEquals("file2", disc.chunk(3).fileReference.getFile());
+
+    disc.getFiles().get(1).addTrack(new CueTrack(TrackType.AUDIO, "p4", "t4")); // files tell their disc
+    assertEquals(4, disc.getTrackCount());
+    assertEquals("t4", disc.getTrack(3).getTitle());
+    assertEquals(4, disc.getTrack(4).getNumber());
+
+    CueTrack track2 = disc.getTrack(2);
+    track2.setNumber(42);
+    assertEquals(4, disc.getTrackCount()); // doesn't renumber
+    assertEquals(42, track2.getNumber());
+    assertTrue(disc.isRenumberingNecessary());
+    assertSame(track2, disc.getTrack(2)); // renumbers
+    assertEquals(2, track2.getNumber());
+    assertFalse(disc.isRenumberingNecessary());
+
+    assertEquals("t1", disc.removeTrack(1).getTitle());
+    assertEquals(List.of("t2", "t4", "t3"), disc.getTracks().stream().map(CueTrack::getTitle).collect(toList()));
+    assertEquals(1, track2.getNumber());
+    disc.setFirstTrackNumber(5);
+    assertSame(track2, disc.getTrack(5));
+    assertThrows(IllegalArgumentException.class, () -> disc.getTrack(1));
+  }
+
+  @Test
+  void should_visit() {
+    CueDisc disc = buildDiscWithTwoTracks();
+    List<String> visited = new ArrayList<>();
+    CueVisitor visitor = new CueVisitor() {
+      @Override
+      public CueVisitResult visitDisc(CueDisc disc) {
+        visited.add("disc");
+        return CueVisitResult.CONTINUE;
+      }
+
+      @Override
+      public CueVisitResult visitFile(CueFile file) {
+        visited.add(file.getFile());
+        return CueVisitResult.CONTINUE;
+      }
+
+      @Override
+      public CueVisitResult visitTrack(CueTrack track) {
+        visited.add(track.getTitle());
+        return "title_1".equals(track.getTitle()) ? CueVisitResult.SKIP_CHILDREN : CueVisitResult.CONTINUE;
+      }
+
+      @Override
+      public CueVisitResult visitIndex(CueIndex index) {
+        visited.add(index.toTimeCode());
+        return CueVisitResult.TERMINATE;
+      }
+    };
+
+    assertEquals(CueVisitResult.TERMINATE, disc.accept(visitor));
+    assertEquals(List.of("disc", "file_0", "title_1", "title_2", "20:40:60"), visited);
+
+    visited.clear();
+    assertEquals(CueVisitResult.CONTINUE, disc.getTrack(1).accept(visitor));
+    assertEquals(List.of("title_1"), visited);
+  }
+
+  @Test
+  void should_freeze() {
+    CueDisc disc = buildDiscWithTwoTracks();
+    disc.getFirstFile().setSizeAndDuration(new SizeAndDuration(100_000_000L, Duration.ofMinutes(30)));
+    disc.setFirstTrackNumber(3);
+
+    CueDisc frozen = disc.freeze();
+    assertFalse(disc.isFrozen());
+    assertTrue(frozen.isFrozen());
+    assertSame(frozen, frozen.freeze());
+
+    assertEquals(List.of(3, 4), frozen.getTracks().stream().map(CueTrack::getNumber).collect(toList()));
+    assertEquals("title_2", frozen.getTrack(4).getTitle());
+    assertSame(frozen.getTrack(3), frozen.getFirstTrack());
+    assertEquals(disc.getIndexes(), frozen.getIndexes());
+    assertEquals(List.copyOf(disc.getTracksDurations().values()), List.copyOf(frozen.getTracksDurations().values()));
+    assertEquals(disc.getSizeOnDisc(), frozen.getSizeOnDisc());
+    assertEquals(disc.getDuration(), frozen.getDuration());
+
+    CueFile file = frozen.getFirstFile();
+    CueTrack track = frozen.getTrack(3);
+    CueIndex index = track.getFirstIndex();
+    assertThrows(UnsupportedOperationException.class, () -> frozen.setTitle("title"));
+    assertThrows(UnsupportedOperationException.class, () -> frozen.removeTrack(3));
+    assertThrows(UnsupportedOperationException.class, () -> frozen.moveTrackAfter(3, 4));
+    assertThrows(UnsupportedOperationException.class, () -> frozen.addFile(new CueFile("file_1", FileType.Audio.MP3)));
+    assertThrows(UnsupportedOperationException.class, () -> file.setSizeAndDuration(null));
+    assertThrows(UnsupportedOperationException.class, () -> file.addTrack(new CueTrack(TrackType.AUDIO)));
+    assertThrows(UnsupportedOperationException.class, () -> track.setNumber(1));
+    assertThrows(UnsupportedOperationException.class, () -> track.setTitle("title"));
+    assertThrows(UnsupportedOperationException.class, () -> track.addFlag(CueFlag.PRE_EMPHASIS_ENABLED));
+    assertThrows(UnsupportedOperationException.class, () -> track.addIndex(new CueIndex(new TimeCode(20, 0, 0))));
+    assertThrows(UnsupportedOperationException.class, () -> index.setFrames(1));
+    assertDoesNotThrow(() -> frozen.checkConsistency(CueWriteOptions.defaults())); // not repacking
+
+    // the original and copies are left mutable, and don't share anything with the frozen disc
+    disc.getTrack(3).setTitle("title_changed");
+    assertEquals("title_1", frozen.getTrack(3).getTitle());
+    CueDisc thawed = frozen.deepCopy();
+    assertFalse(thawed.isFrozen());
+    thawed.getFirstFile().setSizeAndDuration(new SizeAndDuration(1L, Duration.ofMinutes(1)));
+    assertEquals(Duration.ofMinutes(30), frozen.getDuration());
+    assertEquals(Duration.ofMinutes(30), file.getSizeAndDuration().getDuration());
+  }
+
+  @Test
+  void should_check_incrementally() {
+    CueDisc disc = buildDiscWithTwoTracks();
+    disc.getFirstFile().setSizeAndDuration(new SizeAndDuration(100_000_000L, Duration.ofMinutes(30)));
+    CueFile file = disc.getFirstFile();
+    CueTrack track1 = disc.getTrack(1);
+    CueTrack track2 = disc.getTrack(2);
+
+    List<String> issues = messagesOf(disc.checkConsistency(CueWriteOptions.defaults()));
+    assertEquals(List.of("File file_0 doesn't have 00:00:00 as its first track's first index"), issues);
+    assertSame(file, disc.getFirstFile()); // not repacked when unnecessary
+    CueIssues fileIssues = file.getCheckedTracksIssues();
+    CueIssues track2Issues = track2.getCheckedIssues();
+    assertEquals(issues, messagesOf(disc.checkConsistency(CueWriteOptions.defaults())));
+    assertSame(fileIssues, file.getCheckedTracksIssues());
+
+    track1.getFirstIndex().setFrames(0); // indexes tell their track, which tells its file
+    track1.getFirstIndex().setSeconds(0);
+    track1.getFirstIndex().setMinutes(0);
+    track1.setPreGap(new TimeCode(0, 2, 0));
+    assertNotSame(fileIssues, file.getCheckedTracksIssues());
+    assertSame(track2Issues, track2.getCheckedIssues()); // untouched
+    assertEquals(List.of(), messagesOf(disc.checkConsistency(CueWriteOptions.defaults())));
+
+    track1.clearIndexes();
+    disc.setFirstTrackNumber(5); // renumbering makes the messages stale too
+    issues = messagesOf(disc.checkConsistency(CueWriteOptions.builder().build()));
+    assertEquals(1, issues.size());
+    assertTrue(issues.get(0).startsWith("Track 5 index count"), issues.get(0));
+  }
 }
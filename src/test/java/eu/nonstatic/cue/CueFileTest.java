@@ -241,6 +241,29 @@ class CueFileTest {
     assertEquals(Duration.ofMillis(572466L), entry2.getValue());
   }
 
+  @Test
+  void should_report_issues_in_order() {
+    CueFile file = new CueFile("file_0", FileType.Audio.WAVE);
+    CueTrack track1 = new CueTrack(TrackType.AUDIO, "p1", "t1");
+    track1.setPreGap(new TimeCode(0, 2, 0)); // along with an index 00
+    track1.addIndex(new CueIndex(0, new TimeCode(0, 1, 0))); // not starting at 00:00:00
+    track1.addIndex(new CueIndex(1, new TimeCode(0, 3, 0)));
+    file.addTrack(track1);
+    CueTrack track2 = new CueTrack(TrackType.AUDIO, "p2", "t2");
+    track2.addIndex(new CueIndex(1, new TimeCode(0, 2, 0))); // before track 1's
+    file.addTrack(track2);
+    CueDisc disc = new CueDisc();
+    disc.addFile(file);
+
+    List<String> expected = List.of( // tracks issues, then the first index one, then chaining ones
+        "Track 1 has both a pregap duration and a pregap index",
+        "File file_0 doesn't have 00:00:00 as its first track's first index",
+        "Track 2 index 1 timecode 00:02:00 is before its predecessor 00:03:00");
+    assertEquals(expected, CueTestBase.messagesOf(disc.checkConsistency(CueWriteOptions.builder().orderedTimeCodes(true).build()))); // numbers the tracks
+    assertEquals(expected, CueTestBase.messagesOf(disc.getFirstFile().checkConsistency(true)));
+    assertEquals(expected.subList(0, 2), CueTestBase.messagesOf(disc.getFirstFile().checkConsistency(false)));
+  }
+
   @Test
   void should_give_tostring() {
     CueFile file = new CueFile("My File.WAV", FileType.Audio.WAVE);
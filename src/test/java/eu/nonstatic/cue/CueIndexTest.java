@@ -17,6 +17,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import eu.nonstatic.timecode.TimeCode;
 import eu.nonstatic.timecode.TimeCodeRounding;
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 
 class CueIndexTest {
@@ -98,6 +99,34 @@ class CueIndexTest {
     assertEquals("INDEX 03 33:42:69", index.toString());
   }
 
+  @Test
+  void should_store_frame_count() {
+    CueIndex index = new CueIndex(3, new TimeCode(33, 42, 69));
+    assertEquals((33 * 60 + 42) * 75 + 69, index.getFrameCount());
+    assertEquals(33, index.getMinutes());
+    assertEquals(42, index.getSeconds());
+    assertEquals(69, index.getFrames());
+    assertEquals(2022920, index.getTimeMillis());
+    assertEquals(index, CueIndex.ofFrames(3, index.getFrameCount()));
+
+    CueIndex next = new CueIndex(4, new TimeCode(37, 5, 1));
+    assertEquals(Duration.ofMillis(202093), index.until(next));
+    assertEquals(Duration.ofMillis(-202093), next.until(index));
+  }
+
+  @Test
+  void should_keep_scaled_timecode() {
+    TimeCode scaled = TimeCode.parse("01:02:99", true);
+    CueIndex index = new CueIndex(1, scaled);
+    assertTrue(index.getTimeCode().isScaled100to75());
+    assertEquals(scaled.toFrameCount(), index.getFrameCount());
+    assertTrue(index.deepCopy().getTimeCode().isScaled100to75());
+
+    index.setFrames(10);
+    assertFalse(index.getTimeCode().isScaled100to75());
+    assertEquals(new TimeCode(1, 2, 10), index.getTimeCode());
+  }
+
   @Test
   void should_compare() {
     CueIndex index1a = new CueIndex(2, TimeCode.ZERO_SECOND);
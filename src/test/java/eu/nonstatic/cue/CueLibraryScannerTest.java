@@ -0,0 +1,195 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class CueLibraryScannerTest extends CueTestBase {
+
+  /**
+   * 20 sheets, half of them 2 levels down, next to a text file and a directory named like a sheet
+   */
+  private static Path createLibrary(List<Path> cueFiles) throws IOException {
+    Path root = Files.createTempDirectory("cue_library_scanner");
+    Path sub = Files.createDirectories(root.resolve("a/b"));
+    for (int i = 0; i < 20; i++) {
+      Path cueFile = (i % 2 == 0 ? root : sub).resolve(String.format("disc%02d.cue", i));
+      Files.writeString(cueFile, "TITLE \"Disc " + i + "\"\n", StandardCharsets.UTF_8);
+      cueFiles.add(cueFile);
+    }
+    Files.writeString(root.resolve("notes.txt"), "TITLE \"Not a cue\"\n");
+    Files.createDirectory(root.resolve("dir.cue"));
+    return root;
+  }
+
+  @Test
+  void should_not_build_with_bad_bounds() {
+    CueLibraryScanner.Builder builder = CueLibraryScanner.builder().maxInFlight(0);
+    assertThrows(IllegalArgumentException.class, builder::build);
+    CueLibraryScanner.Builder builder2 = CueLibraryScanner.builder().maxDepth(-1);
+    assertThrows(IllegalArgumentException.class, builder2::build);
+  }
+
+  @Test
+  void should_scan_in_walk_order() throws IOException {
+    Path root = createLibrary(new ArrayList<>());
+    try {
+      CueLibraryScanner scanner = CueLibraryScanner.builder().maxInFlight(3).build();
+
+      List<Path> walked;
+      try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE, CueSheetReader::isCueFile)) {
+        walked = paths.collect(Collectors.toList());
+      }
+
+      List<CueScanResult> results = new ArrayList<>();
+      scanner.scan(root, results::add);
+
+      assertEquals(walked, results.stream().map(CueScanResult::getPath).collect(Collectors.toList()));
+      for (CueScanResult result : results) {
+        assertFalse(result.isError());
+        String name = result.getPath().getFileName().toString();
+        assertEquals("Disc " + Integer.parseInt(name.substring(4, 6)), result.getReadout().getDisc().getTitle());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_scan_unordered() throws IOException {
+    List<Path> cueFiles = new ArrayList<>();
+    Path root = createLibrary(cueFiles);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      CueLibraryScanner scanner = CueLibraryScanner.builder()
+          .executor(executor)
+          .ordered(false)
+          .maxInFlight(2)
+          .build();
+
+      try (Stream<CueScanResult> results = scanner.stream(root)) {
+        Set<Path> paths = results.map(CueScanResult::getPath).collect(Collectors.toSet());
+        assertEquals(Set.copyOf(cueFiles), paths);
+      }
+    } finally {
+      executor.shutdown();
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_isolate_failing_file() throws IOException {
+    Path root = createLibrary(new ArrayList<>());
+    try {
+      Path faulty = root.resolve("faulty.cue");
+      Files.write(faulty, new byte[]{'T', 'I', 'T', 'L', 'E', ' ', (byte) 0xE9, '\n'});
+
+      CueLibraryScanner scanner = CueLibraryScanner.builder()
+          .reader(new CueSheetReader(null)) // no fallback
+          .options(new CueOptions(StandardCharsets.UTF_8))
+          .build();
+
+      List<CueScanResult> results = new ArrayList<>();
+      scanner.scan(root, results::add);
+
+      assertEquals(21, results.size());
+      List<CueScanResult> errors = results.stream().filter(CueScanResult::isError).collect(Collectors.toList());
+      assertEquals(1, errors.size());
+      CueScanResult error = errors.get(0);
+      assertEquals(faulty, error.getPath());
+      assertNull(error.getReadout());
+      assertTrue(error.getError() instanceof BadCharsetException);
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_report_unwalkable_directory() throws IOException {
+    Path root = createLibrary(new ArrayList<>());
+    Path locked = Files.createDirectory(root.resolve("locked"));
+    try {
+      Files.writeString(locked.resolve("hidden.cue"), "TITLE \"Hidden\"\n");
+      Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("---------"));
+      assumeFalse(Files.isReadable(locked)); // eg: root can read anyway
+
+      List<CueScanResult> results = new ArrayList<>();
+      CueLibraryScanner.defaults().scan(root, results::add);
+
+      assertEquals(21, results.size());
+      List<CueScanResult> errors = results.stream().filter(CueScanResult::isError).collect(Collectors.toList());
+      assertEquals(1, errors.size());
+      assertEquals(locked, errors.get(0).getPath());
+      assertTrue(errors.get(0).getError() instanceof IOException);
+    } finally {
+      Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwx------"));
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_fail_on_missing_root() throws IOException {
+    Path root = Files.createTempDirectory("cue_library_scanner");
+    Files.delete(root);
+    CueLibraryScanner scanner = CueLibraryScanner.defaults();
+    assertThrows(NoSuchFileException.class, () -> scanner.stream(root));
+  }
+
+  @Test
+  void should_limit_depth() throws IOException {
+    Path root = createLibrary(new ArrayList<>());
+    try {
+      CueLibraryScanner scanner = CueLibraryScanner.builder().maxDepth(1).build();
+      try (Stream<CueScanResult> results = scanner.stream(root)) {
+        assertEquals(10, results.count());
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+
+  @Test
+  void should_scan_linked_cue_file() throws IOException {
+    List<Path> cueFiles = new ArrayList<>();
+    Path root = createLibrary(cueFiles);
+    try {
+      Path link = Files.createSymbolicLink(root.resolve("link.cue"), cueFiles.get(0));
+      Files.createSymbolicLink(root.resolve("dangling.cue"), root.resolve("missing.cue"));
+
+      try (Stream<CueScanResult> results = CueLibraryScanner.defaults().stream(root)) {
+        Set<Path> paths = results.map(CueScanResult::getPath).collect(Collectors.toSet());
+        assertEquals(21, paths.size());
+        assertTrue(paths.contains(link));
+      }
+    } finally {
+      deleteRecursive(root);
+    }
+  }
+}
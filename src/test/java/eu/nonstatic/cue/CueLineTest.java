@@ -0,0 +1,133 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CueLineTest {
+
+  @Test
+  void should_tokenize_line() {
+    CueLine line = new CueLine(3, "  title \t \"Some title\"  ");
+    assertEquals(3, line.getLineNumber());
+    assertEquals("title \t \"Some title\"", line.getRaw());
+    assertSame(CueWords.TITLE, line.getKeyword());
+    assertEquals("\"Some title\"", line.getTail());
+    assertEquals("Some title", line.getUnquotedTail());
+    assertEquals(2, line.getTailWordCount());
+    assertEquals(3, line.words());
+    assertEquals("\"Some", line.getTailWord(0));
+    assertEquals("title\"", line.getTailWord(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> line.getTailWord(2));
+  }
+
+  @Test
+  void should_upper_case_unknown_keyword() {
+    CueLine line = new CueLine(0, "Unknown ThiNG");
+    assertEquals("UNKNOWN", line.getKeyword());
+    assertEquals("ThiNG", line.getUnquotedTail());
+
+    CueLine single = new CueLine(0, "singleword");
+    assertEquals("SINGLEWORD", single.getKeyword());
+    assertFalse(single.hasTail());
+    assertNull(single.getTail());
+    assertNull(single.getUnquotedTail());
+    assertEquals(0, single.getTailWordCount());
+  }
+
+  @Test
+  void should_reuse_known_words() {
+    CueLine line = new CueLine(0, "TRACK 07 AUDIO");
+    assertSame(CueWords.TRACK, line.getKeyword());
+    assertEquals(7, line.getTailWordAsInt(0));
+    assertSame(TrackType.AUDIO, line.getTailWord(1, TrackType.ALL));
+
+    CueLine other = new CueLine(0, "TRACK 07 WHATEVER");
+    assertEquals("WHATEVER", other.getTailWord(1, TrackType.ALL));
+    assertThrows(NumberFormatException.class, () -> new CueLine(0, "TRACK XX AUDIO").getTailWordAsInt(0));
+  }
+
+  @Test
+  void should_unquote_tail_parts() {
+    CueLine line = new CueLine(0, "REM COMMENT \"Some comment\"");
+    int sep = line.tailIndexOf(' ');
+    assertEquals(7, sep);
+    assertSame(CueRemark.TAG_COMMENT, line.matchTail(0, sep, CueRemark.TAGS));
+    assertEquals("Some comment", line.getUnquotedTail(sep + 1));
+
+    assertEquals("", new CueLine(0, "REM COMPOSER \"\"").getUnquotedTail(8));
+    assertEquals("\"", new CueLine(0, "TITLE \"").getUnquotedTail());
+  }
+
+  @Test
+  void should_tell_skippable() {
+    assertTrue(new CueLine(0, "").isSkippable());
+    assertTrue(new CueLine(0, "   ").isSkippable());
+    assertTrue(new CueLine(0, "# comment").isSkippable());
+    assertTrue(new CueLine(0, "// comment").isSkippable());
+    assertTrue(new CueLine(0, "; comment").isSkippable());
+    assertFalse(new CueLine(0, "/ not a comment").isSkippable());
+    assertFalse(new CueLine(0, "FILE \"a.wav\" WAVE").isSkippable());
+  }
+
+  @Test
+  void should_read_lines() throws IOException {
+    String text = "REM a\r\nTITLE b\rFILE c\n\nTRACK 01 AUDIO";
+    try (CueLineReader reader = new CueLineReader(new StringReader(text), 4)) { // tiny buffer to force refills
+      assertLine(reader.readLine(), 0, "REM a");
+      assertLine(reader.readLine(), 1, "TITLE b");
+      assertLine(reader.readLine(), 2, "FILE c");
+      assertLine(reader.readLine(), 3, "");
+      assertLine(reader.readLine(), 4, "TRACK 01 AUDIO");
+      assertNull(reader.readLine());
+      assertEquals(5, reader.getLineNumber());
+    }
+  }
+
+  @Test
+  void should_read_lines_from_chars() throws IOException {
+    CharBuffer chars = CharBuffer.wrap("xxREM a\r\nTITLE b\nxx".toCharArray(), 2, 15);
+    try (CueLineReader reader = new CueLineReader(chars)) {
+      assertLine(reader.readLine(), 0, "REM a");
+      assertLine(reader.readLine(), 1, "TITLE b");
+      assertNull(reader.readLine());
+    }
+  }
+
+  @Test
+  void should_reset_to_mark() throws IOException {
+    String longLine = "REM " + "x".repeat(2000);
+    String text = String.join("\n", List.of("TITLE a", longLine, "TITLE b"));
+    try (CueLineReader reader = new CueLineReader(new StringReader(text), 16)) {
+      assertLine(reader.readLine(), 0, "TITLE a");
+      reader.mark();
+      assertLine(reader.readLine(), 1, longLine);
+      assertLine(reader.readLine(), 2, "TITLE b");
+      reader.reset();
+      assertLine(reader.readLine(), 1, longLine);
+    }
+  }
+
+  private static void assertLine(CueLine line, int expectedLineNumber, String expectedRaw) {
+    assertEquals(expectedLineNumber, line.getLineNumber());
+    assertEquals(expectedRaw, line.getRaw());
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class CueSheetByteWriterTest extends CueTestBase {
+
+  private static final CueWriteOptions OPTIONS = CueWriteOptions.builder().build();
+
+  private static CueDisc readDisc(Charset outputCharset) throws IOException {
+    CueDisc disc = new CueSheetReader().readCueSheet(myTestUrl, StandardCharsets.UTF_8).getDisc();
+    disc.setCharset(outputCharset);
+    disc.addRemark(CueRemark.commentOf("Ŝtrange ǅ and 𝄞")); // neither latin-1 nor in the BMP
+    return disc;
+  }
+
+  private static byte[] writeWithCueSheetWriter(CueDisc disc) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    CueSheetWriter.writeCueSheet(disc, bytes, OPTIONS);
+    return bytes.toByteArray();
+  }
+
+  @Test
+  void should_write_same_bytes_as_cue_sheet_writer() throws IOException {
+    var writer = new CueSheetByteWriter();
+    for (Charset charset : new Charset[]{ StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16, Charset.forName("windows-1252") }) {
+      CueDisc disc = readDisc(charset);
+      byte[] expected = writeWithCueSheetWriter(disc);
+
+      var bytes = new ByteArrayOutputStream();
+      writer.write(disc, bytes, OPTIONS);
+      assertArrayEquals(expected, bytes.toByteArray(), charset.name());
+
+      bytes.reset();
+      writer.write(disc, Channels.newChannel(bytes), OPTIONS); // reused
+      assertArrayEquals(expected, bytes.toByteArray(), charset.name());
+    }
+  }
+
+  @Test
+  void should_keep_lone_surrogate_in_place() throws IOException {
+    var writer = new CueSheetByteWriter();
+    for (Charset charset : new Charset[]{ StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1 }) {
+      CueDisc disc = readDisc(charset);
+      disc.setTitle("Broken \uD834 title"); // high surrogate followed by ASCII
+      byte[] expected = writeWithCueSheetWriter(disc);
+
+      var bytes = new ByteArrayOutputStream();
+      writer.write(disc, bytes, OPTIONS);
+      assertArrayEquals(expected, bytes.toByteArray(), charset.name());
+    }
+  }
+
+  @Test
+  void should_write_through_small_buffer() throws IOException {
+    CueDisc disc = readDisc(StandardCharsets.UTF_8);
+    byte[] expected = writeWithCueSheetWriter(disc);
+
+    var bytes = new ByteArrayOutputStream();
+    new CueSheetByteWriter(64).write(disc, bytes, OPTIONS);
+    assertArrayEquals(expected, bytes.toByteArray());
+    assertThrows(IllegalArgumentException.class, () -> new CueSheetByteWriter(63));
+  }
+
+  @Test
+  void should_write_to_path() throws IOException {
+    CueDisc disc = readDisc(StandardCharsets.UTF_8);
+    Path tempFile = Files.createTempFile("cue", null);
+    try {
+      var writer = new CueSheetByteWriter();
+      assertThrows(FileAlreadyExistsException.class, () -> writer.write(disc, tempFile, OPTIONS));
+      writer.write(disc, tempFile, CueWriteOptions.builder().overwrite(true).build());
+      assertArrayEquals(writeWithCueSheetWriter(disc), Files.readAllBytes(tempFile));
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+}
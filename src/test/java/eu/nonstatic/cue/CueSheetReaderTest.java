@@ -31,6 +31,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.URL;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -39,9 +40,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class CueSheetReaderTest extends CueTestBase {
@@ -153,6 +160,35 @@ class CueSheetReaderTest extends CueTestBase {
     }
   }
 
+  @Test
+  void should_share_reader_and_options_between_threads() throws Exception {
+    Path iso8859File = copyFileContents(CueDiscTest.class.getResource("/iso8859-1.cue"), Files.createTempFile("test", ".cue"));
+    Path utf8File = copyFileContents(CueDiscTest.class.getResource("/utf-8.cue"), Files.createTempFile("test", ".cue"));
+
+    CueSheetReader reader = new CueSheetReader();
+    CueOptions options = CueOptions.builder().fileLeniency(true).build(); // detection for each sheet
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<CueSheetReadout>> futures = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        Path cueFile = (i % 2 == 0) ? iso8859File : utf8File;
+        futures.add(executor.submit(() -> reader.readCueSheet(cueFile, options)));
+      }
+
+      for (int i = 0; i < futures.size(); i++) {
+        CueDisc disc = futures.get(i).get().getDisc();
+        assertEquals("Métamorphoses", disc.getTitle());
+        assertEquals("ç â à ù ê ø", disc.getTrackNumberOne().getTitle());
+        assertEquals(i % 2 != 0, StandardCharsets.UTF_8.equals(disc.getCharset()));
+      }
+      assertNull(options.getCharset());
+    } finally {
+      executor.shutdown();
+      Files.delete(iso8859File);
+      Files.delete(utf8File);
+    }
+  }
+
   @Test
   void should_infer_charset_from_bom() throws IOException {
     CueSheetReader reader = new CueSheetReader();
@@ -162,7 +198,9 @@ class CueSheetReaderTest extends CueTestBase {
     CueDisc disc = readout.getDisc();
     assertFalse(readout.isIssues());
     assertEquals(StandardCharsets.UTF_8, disc.getCharset());
-    assertEquals(StandardCharsets.UTF_8, options1.getCharset());
+    assertEquals(StandardCharsets.UTF_8, readout.getContext().getCharset());
+    assertEquals(CharsetOrigin.BOM, readout.getContext().getCharsetOrigin());
+    assertNull(options1.getCharset()); // untouched
 
     // From file
     Path bomCueFile = copyFileContents(
@@ -175,7 +213,8 @@ class CueSheetReaderTest extends CueTestBase {
     assertEquals(1, issues2.size()); // No "Unknown disc line", just the missing file
     assertTrue(issues2.get(0).getCause() instanceof NoSuchFileException);
     assertEquals(StandardCharsets.UTF_8, disc2.getCharset());
-    assertEquals(StandardCharsets.UTF_8, options2.getCharset());
+    assertEquals(StandardCharsets.UTF_8, readout2.getContext().getCharset());
+    assertNull(options2.getCharset());
   }
 
   @Test
@@ -185,7 +224,8 @@ class CueSheetReaderTest extends CueTestBase {
     CueDisc disc = readout.getDisc();
     assertFalse(readout.isIssues());
     assertEquals(StandardCharsets.UTF_8, disc.getCharset());
-    assertEquals(StandardCharsets.UTF_8, options.getCharset());
+    assertEquals(StandardCharsets.UTF_8, readout.getContext().getCharset());
+    assertEquals(StandardCharsets.US_ASCII, options.getCharset());
   }
 
   @Test
@@ -198,7 +238,9 @@ class CueSheetReaderTest extends CueTestBase {
     assertThrows(IOException.class, () -> reader.readCueSheet(new FaultyStream(is, Bom.MAX_LENGTH_BYTES), context)); // dies on first line read after charset fallback
     assertEquals(1, context.getIssues().size());
     assertEquals("Fallback to US-ASCII for faulty.cue: java.io.IOException: reads: 4", context.getIssues().get(0).getMessage());
-    assertEquals(StandardCharsets.US_ASCII, options.getCharset()); // fallback is set
+    assertEquals(StandardCharsets.US_ASCII, context.getCharset()); // fallback is set
+    assertEquals(CharsetOrigin.FALLBACK, context.getCharsetOrigin());
+    assertNull(options.getCharset());
   }
 
   /**
@@ -574,6 +616,20 @@ class CueSheetReaderTest extends CueTestBase {
     checkReadCueSheet(disc2, expectedCuePath, "", false);
   }
 
+  @Test
+  void should_read_cuesheet_from_text() throws IOException {
+    String expectedCuePath = myTestUrl.toExternalForm();
+    CueSheetContext context = new CueSheetContext(expectedCuePath, new CueOptions(StandardCharsets.UTF_8)); // only passed to the disc
+    String text = String.join("\r\n", readLines(myTestUrl, StandardCharsets.UTF_8));
+
+    CueSheetReader cueSheetReader = new CueSheetReader();
+    CueDisc disc1 = cueSheetReader.readCueSheet(text, context);
+    checkReadCueSheet(disc1, expectedCuePath, "", false);
+
+    CueDisc disc2 = cueSheetReader.readCueSheet(CharBuffer.wrap(('\uFEFF' + text).toCharArray()), context);
+    checkReadCueSheet(disc2, expectedCuePath, "", false);
+  }
+
   @Test
   void should_read_cuesheet_from_reader() throws IOException {
     CueOptions options = new CueOptions(StandardCharsets.UTF_8);
@@ -627,4 +683,180 @@ class CueSheetReaderTest extends CueTestBase {
     assertEquals("WHATEVER", file.getFirstTrack().getIsrc());
     assertNull(file.getLastTrack().getIsrc());
   }
+
+  @Test
+  void should_read_lines_longer_than_former_mark_limit() throws IOException {
+    String longComment = "x".repeat(2048);
+    List<String> lines = List.of(
+        "TITLE \"Long\"",
+        "FILE \"some file 1.mp3\" MP3",
+        "  TRACK 01 AUDIO",
+        "    REM COMMENT \"" + longComment + "\"",
+        "    INDEX 01 00:00:00",
+        "  TRACK 02 AUDIO",
+        "    TITLE \"" + "y".repeat(150) + "\"",
+        "    REM \"" + longComment + "\"",
+        "    INDEX 01 00:10:00");
+    CueSheetContext context = new CueSheetContext("long.cue", new CueOptions(StandardCharsets.UTF_8));
+
+    CueDisc disc = new CueSheetReader().readCueSheet(lines, context);
+    assertFalse(context.isIssues());
+    assertEquals(2, disc.getTrackCount());
+    assertEquals(longComment, disc.getTrack(1).getRemarks().get(0).getValue());
+    assertEquals(longComment, disc.getTrack(2).getRemarks().get(0).getValue());
+    assertEquals(new TimeCode(0, 10, 0), disc.getTrack(2).getStartIndex().getTimeCode());
+  }
+
+  @Test
+  void should_hand_unknown_file_line_over_to_disc() throws IOException {
+    List<String> lines = List.of(
+        "FILE \"some file 1.mp3\" MP3",
+        "REM COMMENT \"disc remark\"",
+        "  TRACK 01 AUDIO",
+        "    INDEX 01 00:00:00",
+        "FILE \"some file 2.mp3\" MP3",
+        "  TRACK 03 AUDIO",
+        "    INDEX 01 00:00:00",
+        "  TRACK 04 AUDIO",
+        "    INDEX 01 00:10:00");
+    CueSheetContext context = new CueSheetContext("pushback.cue", new CueOptions(StandardCharsets.UTF_8));
+
+    CueDisc disc = new CueSheetReader().readCueSheet(lines, context);
+    List<CueFile> files = disc.getFiles();
+    assertEquals(2, files.size());
+    assertEquals(0, files.get(0).getTrackCount());
+    assertEquals(2, files.get(1).getTrackCount());
+    assertTrue(files.get(1).renumberingNecessary);
+    assertEquals(List.of(CueRemark.commentOf("disc remark")), disc.getRemarks());
+    assertEquals(2, disc.getOthers().size());
+    assertEquals("TRACK", disc.getOthers().get(0).getKeyword());
+    assertEquals("INDEX", disc.getOthers().get(1).getKeyword());
+
+    List<CueSheetIssue> issues = context.getIssues();
+    assertEquals(3, issues.size());
+    assertEquals("PUSHBACK.CUE: Unknown file line: REM COMMENT \"DISC REMARK\"", issues.get(0).getMessage());
+    assertEquals("pushback.cue#2: Unknown disc line: TRACK 01 AUDIO", issues.get(1).getMessage());
+    assertEquals("pushback.cue#3: Unknown disc line: INDEX 01 00:00:00", issues.get(2).getMessage());
+  }
+
+  @Test
+  void should_push_events_to_handler() throws IOException {
+    List<String> events = new ArrayList<>();
+    CueSheetHandler handler = new CueSheetHandler() {
+      @Override
+      public void onDiscField(String keyword, String value) {
+        if (CueWords.CATALOG.equals(keyword)) {
+          events.add(keyword + ' ' + value);
+        }
+      }
+
+      @Override
+      public void onFile(String file, FileType type) {
+        events.add(file + ' ' + type.getValue());
+      }
+
+      @Override
+      public void onTrack(int number, String type) {
+        events.add(number + " " + type);
+      }
+
+      @Override
+      public void onFileEnd() {
+        events.add("end of file");
+      }
+
+      @Override
+      public void onIssue(CueSheetIssue issue) {
+        events.add(issue.getMessage());
+      }
+    };
+
+    CueSheetContext context = new CueSheetContext("handler.cue", new CueOptions(StandardCharsets.UTF_8));
+    try (InputStream is = myTestUrl.openStream()) {
+      new CueSheetReader().readCueSheet(is, context, handler);
+    }
+
+    assertEquals(List.of(
+        "handler.cue#12: Unknown disc line: SINGLEWORD",
+        "CATALOG 0 696969 424242",
+        "handler.cue#15: Unknown disc line: UNKNOWN ThiNG",
+        "some file 1.mp3 MP3"), events.subList(0, 4));
+    assertEquals(13, events.stream().filter(event -> event.endsWith(" AUDIO")).count());
+    assertEquals(3, events.stream().filter("end of file"::equals).count());
+    assertEquals("end of file", events.get(events.size() - 1));
+    assertEquals(2, context.getIssues().size());
+  }
+
+  @Test
+  void should_probe_files_concurrently() throws IOException {
+    Path dir = Files.createTempDirectory("should_probe_files_concurrently");
+    List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= 6; i++) {
+      String fileName = "file" + (i % 4) + ".bin"; // file1 and file2 referenced twice
+      if (i % 4 != 3) { // file3 is missing
+        Files.write(dir.resolve(fileName), new byte[(i % 4 + 1) * 2352]);
+      }
+      lines.add(String.format("FILE \"%s\" BINARY", fileName));
+      lines.add(String.format("  TRACK %02d MODE1/2352", i));
+      lines.add("    INDEX 01 00:00:00");
+    }
+    Path cueFile = dir.resolve("probe.cue");
+    Files.write(cueFile, lines, StandardCharsets.UTF_8);
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    AtomicInteger probes = new AtomicInteger();
+    try {
+      CueOptions sequential = CueOptions.builder().charset(StandardCharsets.UTF_8).fileLeniency(true).build();
+      CueOptions concurrent = sequential.toBuilder()
+          .probeExecutor(task -> {
+            probes.incrementAndGet();
+            pool.execute(task);
+          }).build();
+
+      CueSheetReadout expected = new CueSheetReader().readCueSheet(cueFile, sequential);
+      CueSheetReadout actual = new CueSheetReader().readCueSheet(cueFile, concurrent);
+
+      assertEquals(4, probes.get());
+      List<CueFile> files = actual.getDisc().getFiles();
+      assertEquals(6, files.size());
+      for (int i = 0; i < files.size(); i++) {
+        SizeAndDuration sd = expected.getDisc().getFiles().get(i).getSizeAndDuration();
+        assertEquals(sd == null ? null : sd.getSize(),
+            Optional.ofNullable(files.get(i).getSizeAndDuration()).map(SizeAndDuration::getSize).orElse(null));
+      }
+      assertEquals(2 * 2352, files.get(0).getSizeAndDuration().getSize());
+      assertNull(files.get(2).getSizeAndDuration());
+
+      assertEquals(1, actual.getIssues().size());
+      assertEquals(expected.getIssues().get(0).getMessage(), actual.getIssues().get(0).getMessage());
+    } finally {
+      pool.shutdown();
+      deleteRecursive(dir);
+    }
+  }
+
+  @Test
+  void should_decode_with_next_candidate() throws IOException {
+    Path tempFile = Files.createTempFile("test", ".cue");
+    try(OutputStream os = Files.newOutputStream(tempFile)) {
+      for (int i = 0; i < 400; i++) { // beyond the 8000 bytes ICU samples
+        os.write(String.format("REM COMMENT \"%03d Métamorphoses\"%n", i).getBytes(StandardCharsets.UTF_8));
+      }
+      os.write("TITLE \"Métamorphoses\"\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    try {
+      CueOptions options = CueOptions.builder().build();
+      CueSheetReadout readout = new CueSheetReader(StandardCharsets.ISO_8859_1).readCueSheet(tempFile, options);
+      CueSheetContext context = readout.getContext();
+
+      assertTrue(Set.of(CharsetOrigin.DETECTION_CANDIDATE, CharsetOrigin.FALLBACK).contains(context.getCharsetOrigin()));
+      assertEquals(context.getCharset(), readout.getDisc().getCharset());
+      assertEquals(400, readout.getDisc().getRemarks().size());
+      assertEquals(1, readout.getIssues().size());
+      assertTrue(readout.getIssues().get(0).getMessage().startsWith("Decoded " + tempFile + " with " + context.getCharset() + " since UTF-8 failed"));
+    } finally {
+      Files.delete(tempFile);
+    }
+  }
 }
@@ -30,9 +30,12 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
 class CueSheetWriterTest extends CueTestBase {
@@ -114,6 +117,51 @@ class CueSheetWriterTest extends CueTestBase {
   }
 
 
+  @Test
+  void should_write_cuesheet_if_changed() throws IOException {
+    Charset cs = StandardCharsets.UTF_8;
+    CueDisc disc = new CueSheetReader().readCueSheet(myTestUrl, cs).getDisc();
+    Path tempDir = Files.createTempDirectory("cue_write_if_changed");
+    Path cueFile = tempDir.resolve("disc.cue");
+    try {
+      CueWriteOptions options = CueWriteOptions.builder().writeIfChanged(true).build();
+      assertTrue(CueSheetWriter.writeCueSheet(disc, cueFile, options));
+      assertFileContents(myTestUrlExpected, cueFile.toFile(), cs);
+
+      FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+      Files.setLastModifiedTime(cueFile, past);
+      assertFalse(CueSheetWriter.writeCueSheet(disc, cueFile, options)); // same content, even without overwrite
+      assertFalse(new CueSheetByteWriter().write(disc, cueFile, options));
+      assertEquals(past, Files.getLastModifiedTime(cueFile));
+
+      disc.setTitle("Another title");
+      assertThrows(FileAlreadyExistsException.class, () -> CueSheetWriter.writeCueSheet(disc, cueFile, options));
+      assertTrue(CueSheetWriter.writeCueSheet(disc, cueFile, CueWriteOptions.builder().writeIfChanged(true).overwrite(true).build()));
+      assertTrue(Files.readString(cueFile, cs).contains("TITLE \"Another title\""));
+      try (Stream<Path> files = Files.list(tempDir)) {
+        assertEquals(List.of(cueFile), files.collect(Collectors.toList())); // no temp file left
+      }
+    } finally {
+      deleteRecursive(tempDir);
+    }
+  }
+
+  @Test
+  void should_write_through_symlink_if_changed() throws IOException {
+    CueDisc disc = new CueSheetReader().readCueSheet(myTestUrl, StandardCharsets.UTF_8).getDisc();
+    Path tempDir = Files.createTempDirectory("cue_write_if_changed");
+    try {
+      Path target = Files.writeString(tempDir.resolve("target.cue"), "TITLE \"Old\"\n");
+      Path link = Files.createSymbolicLink(tempDir.resolve("link.cue"), target.getFileName());
+
+      assertTrue(CueSheetWriter.writeCueSheet(disc, link, CueWriteOptions.builder().writeIfChanged(true).overwrite(true).build()));
+      assertTrue(Files.isSymbolicLink(link));
+      assertFileContents(myTestUrlExpected, target.toFile(), StandardCharsets.UTF_8);
+    } finally {
+      deleteRecursive(tempDir);
+    }
+  }
+
   private static void assertFileContents(URL expectedFileUrl, File actualFile, Charset cs) throws IOException {
     List<String> writtenlines = Files.readAllLines(actualFile.toPath(), cs);
 
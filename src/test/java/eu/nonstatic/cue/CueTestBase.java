@@ -107,4 +107,13 @@ abstract class CueTestBase {
       }
     });
   }
+
+  /**
+   * @return the issues' messages, or their throwables' when they have none
+   */
+  public static List<String> messagesOf(CueIssues issues) {
+    List<String> messages = new ArrayList<>();
+    issues.forEach(entry -> messages.add(entry.getMessage() != null ? entry.getMessage() : entry.getThrowable().getMessage()));
+    return messages;
+  }
 }
@@ -0,0 +1,154 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static eu.nonstatic.cue.CueTokenType.DISC_FIELD;
+import static eu.nonstatic.cue.CueTokenType.END;
+import static eu.nonstatic.cue.CueTokenType.FILE;
+import static eu.nonstatic.cue.CueTokenType.FILE_END;
+import static eu.nonstatic.cue.CueTokenType.INDEX;
+import static eu.nonstatic.cue.CueTokenType.OTHER;
+import static eu.nonstatic.cue.CueTokenType.REM;
+import static eu.nonstatic.cue.CueTokenType.TRACK;
+import static eu.nonstatic.cue.CueTokenType.TRACK_FIELD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CueTokenReaderTest {
+
+  static final String SHEET = String.join("\n",
+      "REM COMMENT \"Some comment\"",
+      "CATALOG 0696969424242",
+      "FILE \"some file 1.wav\" WAVE",
+      "  TRACK 01 AUDIO",
+      "    TITLE \"Title 1\"",
+      "    FLAGS DCP 4CH",
+      "    REM WHATEVER",
+      "    INDEX 01 00:00:00",
+      "  TRACK 02 AUDIO",
+      "    PREGAP 00:02:00",
+      "    INDEX 01 03:00:00",
+      "FILE \"some file 2.wav\" WAVE",
+      "  TRACK 03 AUDIO",
+      "    INDEX 01 00:00:00",
+      "UNKNOWN line");
+
+  static CueTokenReader newTokenReader() {
+    CueSheetContext context = new CueSheetContext("tokens.cue", new CueOptions(StandardCharsets.UTF_8));
+    return new CueTokenReader(new CueLineReader(new StringReader(SHEET)), context);
+  }
+
+  @Test
+  void should_pull_tokens() throws IOException {
+    try (CueTokenReader tokens = newTokenReader()) {
+      assertEquals(REM, tokens.next());
+      assertSame(CueRemark.TAG_COMMENT, tokens.getTag());
+      assertEquals("Some comment", tokens.getValue());
+      assertFalse(tokens.isInTrack());
+
+      assertEquals(DISC_FIELD, tokens.next());
+      assertSame(CueWords.CATALOG, tokens.getKeyword());
+      assertEquals("0696969424242", tokens.getValue());
+      assertEquals(1, tokens.getLineNumber());
+
+      assertEquals(FILE, tokens.next());
+      assertEquals("some file 1.wav", tokens.getValue());
+      assertEquals(FileType.Audio.WAVE, tokens.getFileType());
+
+      assertEquals(TRACK, tokens.next());
+      assertEquals(1, tokens.getNumber());
+      assertSame(TrackType.AUDIO, tokens.getTrackType());
+
+      assertEquals(TRACK_FIELD, tokens.next());
+      assertSame(CueWords.TITLE, tokens.getKeyword());
+      assertEquals("Title 1", tokens.getValue());
+
+      assertEquals(TRACK_FIELD, tokens.next());
+      assertEquals(List.of(CueFlag.DIGITAL_COPY_PERMITTED, CueFlag.FOUR_CHANNEL_AUDIO), tokens.getFlags());
+      assertThrows(IllegalStateException.class, tokens::getTimeCode);
+
+      assertEquals(REM, tokens.next());
+      assertNull(tokens.getTag());
+      assertEquals("WHATEVER", tokens.getValue());
+      assertTrue(tokens.isInTrack());
+
+      assertEquals(INDEX, tokens.next());
+      assertEquals(1, tokens.getNumber());
+      assertEquals(new TimeCode(0, 0, 0), tokens.getTimeCode());
+      assertThrows(IllegalStateException.class, tokens::getTrackType);
+
+      assertEquals(TRACK, tokens.next());
+      assertEquals(TRACK_FIELD, tokens.next());
+      assertEquals(new TimeCode(0, 2, 0), tokens.getTimeCode());
+      assertEquals(INDEX, tokens.next());
+
+      assertEquals(FILE_END, tokens.next());
+      assertEquals(-1, tokens.getLineNumber());
+      assertEquals(FILE, tokens.next());
+      assertEquals(11, tokens.getLineNumber());
+      assertEquals(TRACK, tokens.next());
+      assertEquals(INDEX, tokens.next());
+
+      assertEquals(OTHER, tokens.next());
+      assertEquals("UNKNOWN", tokens.getKeyword());
+      assertEquals("line", tokens.getValue());
+      assertTrue(tokens.isInTrack());
+      assertEquals(List.of("tokens.cue#14: Unknown track line: UNKNOWN line"),
+          List.of(tokens.getContext().getIssues().get(0).getMessage()));
+
+      assertEquals(FILE_END, tokens.next());
+      assertEquals(END, tokens.next());
+      assertEquals(END, tokens.next());
+    }
+  }
+
+  @Test
+  void should_skip_tracks_and_files() throws IOException {
+    try (CueTokenReader tokens = newTokenReader()) {
+      CueTokenType type;
+      while ((type = tokens.next()) != TRACK);
+
+      assertEquals(TRACK, tokens.skipTrack());
+      assertEquals(2, tokens.getNumber());
+      assertEquals(FILE, tokens.skipFile());
+      assertEquals("some file 2.wav", tokens.getValue());
+      assertEquals(END, tokens.skipFile());
+    }
+  }
+
+  @Test
+  void should_stop_once_known() throws IOException {
+    String catalog = null;
+    String firstFile = null;
+    try (CueTokenReader tokens = newTokenReader()) {
+      CueTokenType type;
+      while (firstFile == null && (type = tokens.next()) != END) {
+        if (type == DISC_FIELD && tokens.getKeyword() == CueWords.CATALOG) {
+          catalog = tokens.getValue();
+        } else if (type == FILE) {
+          firstFile = tokens.getValue();
+        }
+      }
+    }
+    assertEquals("0696969424242", catalog);
+    assertEquals("some file 1.wav", firstFile);
+  }
+}
@@ -308,6 +308,21 @@ class CueTrackTest {
     assertEquals(Duration.ofMillis(1179600L), track3.until(null, fileDuration));
   }
 
+  @Test
+  void should_sum_gaps_durations() throws IllegalTrackTypeException, IndexNotFoundException, NegativeDurationException {
+    TimeCode preGap = new TimeCode(0, 0, 1);
+    TimeCode postGap = new TimeCode(0, 0, 2);
+    CueTrack track1 = new CueTrack(TrackType.AUDIO, new CueIndex(CueIndex.INDEX_TRACK_START, new TimeCode(0, 0, 0)));
+    track1.setPreGap(preGap);
+    track1.setPostGap(postGap);
+    CueTrack track2 = new CueTrack(TrackType.AUDIO, new CueIndex(CueIndex.INDEX_TRACK_START, new TimeCode(0, 0, 1)));
+
+    // each part rounded on its own (13+13+26ms), not the 4 frames at once (53ms)
+    Duration expected = Duration.ofMillis(13L).plus(preGap.toDuration()).plus(postGap.toDuration());
+    assertEquals(expected, track1.until(track2, null));
+    assertEquals(expected, track1.until(track2, null, false));
+  }
+
   @Test
   void should_give_tostring() {
     CueTrack track = new CueTrack(7, TrackType.AUDIO);
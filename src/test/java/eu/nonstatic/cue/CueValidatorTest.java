@@ -0,0 +1,128 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class CueValidatorTest extends CueTestBase {
+
+  private static final CueWriteOptions OPTIONS = CueWriteOptions.builder()
+      .burningCompliant(CueDisc.DURATION_80_MIN)
+      .minTrackDuration(Duration.ofSeconds(4))
+      .build();
+
+  /**
+   * One issue per standard rule but the track count
+   */
+  private static CueDisc buildFaultyDisc() {
+    CueDisc disc = new CueDisc();
+    CueFile file0 = new CueFile("file_0", FileType.Audio.MP3);
+    file0.setSizeAndDuration(new SizeAndDuration(5_000_000L, Duration.ofMinutes(5)));
+    CueTrack track1 = new CueTrack(TrackType.AUDIO, "p1", "t1");
+    track1.addIndex(new CueIndex(new TimeCode(0, 1, 0))); // not starting at 00:00:00
+    file0.addTrack(track1);
+    CueTrack track2 = new CueTrack(TrackType.AUDIO, "p2", "t2");
+    track2.addIndex(new CueIndex(new TimeCode(0, 2, 0))); // too short
+    file0.addTrack(track2);
+    CueTrack track3 = new CueTrack(TrackType.AUDIO, "p3", "t3");
+    track3.addIndex(new CueIndex(new TimeCode(1, 0, 0)));
+    file0.addTrack(track3);
+    disc.addFile(file0);
+
+    CueFile file1 = new CueFile("file_1", FileType.Audio.WAVE);
+    file1.setSizeAndDuration(new SizeAndDuration(900_000_000L, Duration.ofMinutes(85))); // too big
+    CueTrack track4 = new CueTrack(TrackType.AUDIO, "p4", "t4");
+    track4.setPreGap(new TimeCode(0, 2, 0)); // along with an index 00
+    track4.addIndex(new CueIndex(0, new TimeCode(0, 0, 0)));
+    track4.addIndex(new CueIndex(1, new TimeCode(0, 2, 0)));
+    file1.addTrack(track4);
+    disc.addFile(file1);
+    return disc;
+  }
+
+  @Test
+  void should_match_consistency_check() {
+    List<String> expected = messagesOf(buildFaultyDisc().checkConsistency(OPTIONS));
+    assertEquals(4, expected.size());
+
+    CueValidator validator = CueValidator.builder().options(OPTIONS).rules(CueStandardRule.values()).build();
+    assertEquals(expected, messagesOf(validator.validate(buildFaultyDisc())));
+  }
+
+  @Test
+  void should_run_cheap_rules_first() {
+    CueValidator validator = CueValidator.builder().options(OPTIONS)
+        .rules(CueStandardRule.BURNING_LIMIT, CueStandardRule.TRACKS, CueStandardRule.FIRST_INDEX)
+        .build();
+    assertEquals(List.of(CueStandardRule.TRACKS, CueStandardRule.FIRST_INDEX, CueStandardRule.BURNING_LIMIT), validator.getRules());
+
+    List<String> messages = messagesOf(validator.validate(buildFaultyDisc()));
+    assertEquals(3, messages.size());
+    assertTrue(messages.get(0).startsWith("File file_0"), messages.get(0)); // file rules file by file
+    assertTrue(messages.get(1).startsWith("Track 4 has both"), messages.get(1));
+  }
+
+  @Test
+  void should_fail_fast() {
+    CueDisc disc = buildFaultyDisc();
+    disc.getFirstFile().setSizeAndDuration(null); // probing rules would throw
+    CueValidator validator = CueValidator.builder().options(OPTIONS).failFast(true).build();
+    List<String> messages = messagesOf(validator.validate(disc));
+    assertEquals(List.of("File file_0 doesn't have 00:00:00 as its first track's first index"), messages);
+
+    CueValidator all = CueValidator.builder().options(OPTIONS).build();
+    assertThrows(IllegalArgumentException.class, () -> all.validate(disc));
+  }
+
+  @Test
+  void should_check_files_in_parallel() {
+    List<String> expected = messagesOf(CueValidator.builder().options(OPTIONS).build().validate(buildFaultyDisc()));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CueValidator validator = CueValidator.builder().options(OPTIONS).executor(executor).build();
+      assertEquals(expected, messagesOf(validator.validate(buildFaultyDisc())));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void should_run_custom_rule() {
+    CueRule noTitle = new CueRule() {
+      @Override
+      public String getName() {
+        return "NO_DISC_TITLE";
+      }
+
+      @Override
+      public Scope getScope() {
+        return Scope.DISC;
+      }
+
+      @Override
+      public void checkDisc(CueDisc disc, CueWriteOptions options, CueIssues issues) {
+        if(disc.getTitle() == null) {
+          issues.add("Disc has no title");
+        }
+      }
+    };
+    CueValidator validator = CueValidator.builder().options(OPTIONS).rules(CueStandardRule.TRACK_COUNT, noTitle).build();
+    assertEquals(List.of("Disc has no title"), messagesOf(validator.validate(buildFaultyDisc())));
+  }
+}
@@ -27,5 +27,6 @@ class CueWriteOptionsTest {
         assertTrue(defaults.isOrderedTimeCodes());
         assertNull(defaults.getMinTrackDuration());
         assertEquals(SizeAndDuration.getCompactDiscBytesFrom(CueDisc.DURATION_80_MIN, null), defaults.getBurningLimit());
+        assertFalse(defaults.isWriteIfChanged());
     }
 }
@@ -0,0 +1,98 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.ibm.icu.text.CharsetDetector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class FastCharsetDetectorTest {
+
+  @Test
+  void should_detect_ascii() {
+    assertEquals(StandardCharsets.ISO_8859_1, detect("TITLE \"Be Bop a Lula\"\r\n\tREM DATE 1956\n"));
+    assertNull(detect(""));
+    assertNull(detect("TITLE \u0002"));
+    assertNull(detect(new byte[]{'T', 0, 'I', 0, 'T', 0, 'L', 0, 'E', 0}, false)); // UTF-16 likely
+    assertNull(detect("TITLE \"Be Bop\u007F a Lula\""));
+  }
+
+  @Test
+  void should_skip_ascii_across_lines() {
+    byte[] bytes = "TITLE \"Be Bop a Lula\"\r\n\tREM DATE 1956\nPERFORMER \"Gene Vincent\"\n\u007F".getBytes(StandardCharsets.US_ASCII);
+    assertEquals(bytes.length - 1, FastCharsetDetector.skipAscii(bytes, 0, bytes.length));
+    assertEquals(bytes.length - 1, FastCharsetDetector.skipAscii(bytes, 0, bytes.length - 1));
+    assertEquals(3, FastCharsetDetector.skipAscii(bytes, 3, 3));
+  }
+
+  @Test
+  void should_detect_utf8() {
+    assertEquals(StandardCharsets.UTF_8, detect("TITLE \"cha cha cha àâéếùï すみませんでした\""));
+    assertNull(detect("TITLE \"àâé\"")); // too few sequences to be sure
+    assertNull(detect("TITLE \"àâéếùï\"".getBytes(StandardCharsets.ISO_8859_1), false));
+  }
+
+  @Test
+  void should_validate_utf8_strictly() {
+    assertEquals(-1, count(0xC0, 0xAF)); // overlong
+    assertEquals(-1, count(0xE0, 0x80, 0xAF)); // overlong
+    assertEquals(-1, count(0xED, 0xA0, 0x80)); // surrogate
+    assertEquals(-1, count(0xF4, 0x90, 0x80, 0x80)); // > U+10FFFF
+    assertEquals(-1, count(0xF5, 0x80, 0x80, 0x80));
+    assertEquals(-1, count('a', 0, 'b'));
+    assertEquals(1, count(0xF0, 0x9F, 0x8E, 0xB5));
+    assertEquals(2, count(0xC3, 0xA9, 'a', 0xE3, 0x81, 0x99));
+  }
+
+  @Test
+  void should_accept_cut_sequence_in_sample() {
+    byte[] bytes = "ééééす".getBytes(StandardCharsets.UTF_8);
+    assertEquals(StandardCharsets.UTF_8, FastCharsetDetector.detect(bytes, 0, bytes.length - 1, true));
+    assertNull(FastCharsetDetector.detect(bytes, 0, bytes.length - 1, false));
+  }
+
+  @Test
+  void should_agree_with_icu_on_fixtures() throws IOException {
+    for (String fixture : new String[]{"/iso8859-1.cue", "/utf-8.cue", "/My Test.cue", "/ISRC Test.cue", "/TC Test.cue", "/SD Test.cue"}) {
+      byte[] bytes;
+      try (InputStream is = getClass().getResourceAsStream(fixture)) {
+        bytes = is.readAllBytes();
+      }
+      Charset fast = FastCharsetDetector.detect(bytes, 0, bytes.length, false);
+      if (fast != null) {
+        CharsetDetector cd = new CharsetDetector();
+        cd.setText(bytes);
+        assertEquals(Charset.forName(cd.detect().getName()), fast, fixture);
+      }
+    }
+  }
+
+  private static Charset detect(String text) {
+    return detect(text.getBytes(StandardCharsets.UTF_8), false);
+  }
+
+  private static Charset detect(byte[] bytes, boolean partial) {
+    return FastCharsetDetector.detect(bytes, 0, bytes.length, partial);
+  }
+
+  private static int count(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return FastCharsetDetector.countUtf8Sequences(bytes, 0, bytes.length, false);
+  }
+}
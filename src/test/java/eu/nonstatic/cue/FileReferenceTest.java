@@ -208,6 +208,54 @@ class FileReferenceTest extends CueTestBase {
     assertNull(sd.duration);
   }
 
+  @Test
+  void should_probe_lazily() throws IOException {
+    Path binFile = Files.createTempFile("my file", ".bin");
+    Files.write(binFile, new byte[2352]);
+
+    CueSheetContext context = new CueSheetContext("whatever", CueOptions.builder().lazySizeAndDuration(true).build());
+    FileReference fileReference = new FileReference(binFile, context);
+    assertNull(fileReference.sizeAndDuration);
+
+    Files.write(binFile, new byte[4704]); // the probe happens now, not when reading the sheet
+    assertEquals(4704L, fileReference.getSizeAndDuration().size);
+    Files.delete(binFile);
+    assertEquals(4704L, fileReference.getSizeAndDuration().size); // probed once
+    assertFalse(context.isIssues());
+  }
+
+  @Test
+  void should_probe_lazily_with_fresh_listing() throws IOException {
+    Path dir = Files.createTempDirectory("lazy");
+    try {
+      Path binFile = dir.resolve("late.bin");
+      CueSheetContext context = new CueSheetContext("whatever", CueOptions.builder().lazySizeAndDuration(true).build());
+      FileReference fileReference = new FileReference(binFile, context);
+      assertThrows(NoSuchFileException.class, () -> context.getFileResolver().resolveName(binFile)); // the read's listing
+
+      Files.write(binFile, new byte[2352]);
+      assertEquals(2352L, fileReference.getSizeAndDuration().size);
+      assertFalse(context.isIssues());
+    } finally {
+      deleteRecursive(dir);
+    }
+  }
+
+  @Test
+  void should_report_lazy_file_not_found() throws IOException {
+    Path file = Files.createTempFile("my file", ".xyz");
+    Files.delete(file);
+
+    CueSheetContext context = new CueSheetContext("whatever", CueOptions.builder().lazySizeAndDuration(true).build());
+    FileReference fileReference = new FileReference(file, context);
+    assertFalse(context.isIssues());
+
+    assertNull(fileReference.getSizeAndDuration());
+    List<CueSheetIssue> issues = context.getIssues();
+    assertEquals(1, issues.size());
+    assertTrue(issues.get(0).getCause() instanceof NoSuchFileException);
+  }
+
   @Test
   void should_handle_audio_file_not_found() throws IOException {
     Path file = Files.createTempFile("my file", ".flac");
@@ -0,0 +1,48 @@
+/**
+ * Cuelib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of cuelib.
+ * cuelib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.cue;
+
+import static eu.nonstatic.cue.CueTestBase.deleteRecursive;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class FileResolverTest {
+
+  @Test
+  void should_resolve_from_listing() throws IOException {
+    Path dir = Files.createTempDirectory("should_resolve_from_listing");
+    try {
+      Path file = Files.createFile(dir.resolve("my file.wav"));
+      FileResolver resolver = new FileResolver();
+
+      assertEquals("my file.wav", resolver.resolveName(file));
+      NoSuchFileException e = assertThrows(NoSuchFileException.class, () -> resolver.resolveName(dir.resolve("other.wav")));
+      assertEquals(dir.resolve("other.wav").toString(), e.getMessage());
+
+      Files.createFile(dir.resolve("late.wav")); // the listing is done once
+      assertThrows(NoSuchFileException.class, () -> resolver.resolveName(dir.resolve("late.wav")));
+      assertEquals("late.wav", new FileResolver().resolveName(dir.resolve("late.wav")));
+    } finally {
+      deleteRecursive(dir);
+    }
+  }
+
+  @Test
+  void should_not_resolve_in_missing_dir() {
+    Path file = Path.of(System.getProperty("java.io.tmpdir"), "should_not_resolve_in_missing_dir", "my file.wav");
+    assertThrows(NoSuchFileException.class, () -> new FileResolver().resolveName(file));
+  }
+}